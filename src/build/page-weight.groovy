@@ -0,0 +1,67 @@
+// Measures gzip-compressed size of front-end assets and fails the build when a budget is exceeded.
+// Budgets are configured with page-weight.budget.* properties in pom.xml, the report is written
+// to target/page-weight-report.txt.
+
+import java.util.zip.GZIPOutputStream
+
+def props = project.properties
+def basedir = project.basedir
+def warSourceDir = new File(props['war.source.directory'] as String)
+
+def gzipSize = { File file ->
+    def buffer = new ByteArrayOutputStream()
+    new GZIPOutputStream(buffer).withStream { it << file.bytes }
+    buffer.size()
+}
+def filesIn = { String dir, Closure<Boolean> filter ->
+    (new File(basedir, dir).listFiles() ?: new File[0]).findAll { it.isFile() && filter(it) }.sort { it.name }
+}
+def budget = { String name -> props["page-weight.budget.${name}" as String] as long }
+
+def groups = [
+        [name: 'theme css', budget: budget('css'),
+         files: [new File(warSourceDir, "${props['war.theme.path']}/theme.css")]],
+        [name: 'theme images', budget: budget('theme-image'),
+         files: filesIn('src/main/theme/img', { true })],
+        [name: 'favicon', budget: budget('favicon'),
+         files: [new File(basedir, 'src/main/webapp/resources/images/favicondataverse.png')]],
+        [name: 'footer logos', budget: budget('footer-logo'),
+         files: filesIn('assets/logos', { !it.name.endsWith('.md') })]
+]
+
+def report = []
+def violations = []
+long total = 0
+
+groups.each { group ->
+    group.files.each { File file ->
+        if (!file.isFile()) {
+            violations << "${group.name}: ${file} does not exist"
+            return
+        }
+        long size = gzipSize(file)
+        total += size
+        def status = size > group.budget ? 'OVER' : 'OK'
+        if (size > group.budget) {
+            violations << "${group.name}: ${file.name} is ${size} B gzipped, budget ${group.budget} B"
+        }
+        report << String.format('%-4s %9d %9d %9d  %s', status, file.length(), size, group.budget,
+                basedir.toPath().relativize(file.toPath()))
+    }
+}
+
+long totalBudget = budget('total')
+if (total > totalBudget) {
+    violations << "total is ${total} B gzipped, budget ${totalBudget} B"
+}
+report << String.format('%-4s %9s %9d %9d  %s', total > totalBudget ? 'OVER' : 'OK', '', total, totalBudget, 'TOTAL')
+
+def reportFile = new File(project.build.directory, 'page-weight-report.txt')
+reportFile.parentFile.mkdirs()
+reportFile.text = (['STAT       RAW      GZIP    BUDGET  FILE'] + report).join(System.lineSeparator()) + System.lineSeparator()
+report.each { log.info(it) }
+
+if (violations) {
+    throw new IllegalStateException('Page weight budget exceeded:' + System.lineSeparator()
+            + violations.join(System.lineSeparator()))
+}
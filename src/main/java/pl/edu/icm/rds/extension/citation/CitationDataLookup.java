@@ -0,0 +1,33 @@
+package pl.edu.icm.rds.extension.citation;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Loads {@link CitationData} of published datasets and their files directly, without loading
+ * the rest of the dataset. An implementation has to be provided as a CDI bean by the application.
+ * It is called within the request, so it can check the permissions of the current user.
+ */
+public interface CitationDataLookup {
+
+    /**
+     * Returns citation data of the dataset version populated with at least the given fields,
+     * or empty if there is no such published version.
+     *
+     * @param persistentId persistent identifier of the dataset, e.g. {@code doi:10.18150/ZENON}
+     * @param version version number, e.g. {@code 1.0}, or {@code null} for the latest published version
+     */
+    Optional<CitationData> findDataset(String persistentId, String version, Set<CitationField> fields);
+
+    /**
+     * Returns citation data of files in dataset versions, keyed by the given file metadata ids and populated
+     * with at least the given fields. A file metadata id identifies a file in a particular dataset version,
+     * so the citation is rendered for the version the file is listed in, including a draft version if
+     * the current user may view it. File metadata that is not found or not viewable is skipped.
+     */
+    Map<Long, CitationData> findFileVersions(Collection<Long> fileMetadataIds, Set<CitationField> fields);
+}
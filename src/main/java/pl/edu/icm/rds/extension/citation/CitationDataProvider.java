@@ -0,0 +1,18 @@
+package pl.edu.icm.rds.extension.citation;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+
+import java.util.Set;
+
+/**
+ * Source of {@link CitationData} that is populated only with the fields requested by the rendered format,
+ * so that metadata not read by that format does not have to be loaded at all.
+ */
+@FunctionalInterface
+public interface CitationDataProvider {
+
+    /**
+     * Returns citation data with at least the given fields populated. Other fields may be left empty.
+     */
+    CitationData provide(Set<CitationField> fields);
+}
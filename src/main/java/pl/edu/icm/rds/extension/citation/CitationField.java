@@ -0,0 +1,57 @@
+package pl.edu.icm.rds.extension.citation;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+
+import java.util.Collection;
+import java.util.function.BiConsumer;
+
+/**
+ * Fields of {@link CitationData} that can be read while rendering a citation.
+ *
+ * @see RdsCitationFormatsConverter#getRequiredFields(CitationFormat)
+ */
+public enum CitationField {
+    AUTHORS((from, to) -> to.getAuthors().addAll(from.getAuthors())),
+    TITLE((from, to) -> to.setTitle(from.getTitle())),
+    PRODUCERS((from, to) -> to.getProducers().addAll(from.getProducers())),
+    PRODUCTION_PLACE((from, to) -> to.setProductionPlace(from.getProductionPlace())),
+    PRODUCTION_DATE((from, to) -> to.setProductionDate(from.getProductionDate())),
+    DISTRIBUTORS((from, to) -> to.getDistributors().addAll(from.getDistributors())),
+    OTHER_IDS((from, to) -> to.getOtherIds().addAll(from.getOtherIds())),
+    KEYWORDS((from, to) -> to.getKeywords().addAll(from.getKeywords())),
+    LANGUAGES((from, to) -> to.getLanguages().addAll(from.getLanguages())),
+    ROOT_DATAVERSE_NAME((from, to) -> to.setRootDataverseName(from.getRootDataverseName())),
+    RELEASE_YEAR((from, to) -> to.setReleaseYear(from.getReleaseYear())),
+    YEAR((from, to) -> to.setYear(from.getYear())),
+    PERSISTENT_ID((from, to) -> to.setPersistentId(from.getPersistentId())),
+    PID_OF_DATASET((from, to) -> to.setPidOfDataset(from.getPidOfDataset())),
+    PID_OF_FILE((from, to) -> to.setPidOfFile(from.getPidOfFile())),
+    VERSION((from, to) -> to.setVersion(from.getVersion())),
+    FILE_TITLE((from, to) -> to.setFileTitle(from.getFileTitle()));
+
+    private final BiConsumer<CitationData, CitationData> copier;
+
+    // -------------------- CONSTRUCTORS --------------------
+
+    CitationField(BiConsumer<CitationData, CitationData> copier) {
+        this.copier = copier;
+    }
+
+    // -------------------- LOGIC --------------------
+
+    /**
+     * Copies the value of this field from one {@link CitationData} to another.
+     */
+    public void copy(CitationData from, CitationData to) {
+        copier.accept(from, to);
+    }
+
+    /**
+     * Creates a {@link CitationData} that contains only the given fields of the source.
+     */
+    public static CitationData copyOf(CitationData source, Collection<CitationField> fields) {
+        CitationData copy = new CitationData();
+        fields.forEach(f -> f.copy(source, copy));
+        return copy;
+    }
+}
@@ -0,0 +1,39 @@
+package pl.edu.icm.rds.extension.citation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Citation formats rendered by {@link RdsCitationFormatsConverter}.
+ */
+public enum CitationFormat {
+    TEXT("text/x-bibliography", "text/plain"),
+    BIBTEX("application/x-bibtex"),
+    RIS("application/x-research-info-systems"),
+    ENDNOTE("text/xml", "application/xml");
+
+    private final List<String> mediaTypes;
+
+    // -------------------- CONSTRUCTORS --------------------
+
+    CitationFormat(String... mediaTypes) {
+        this.mediaTypes = Collections.unmodifiableList(Arrays.asList(mediaTypes));
+    }
+
+    // -------------------- GETTERS --------------------
+
+    /**
+     * Returns the media type the format is served with.
+     */
+    public String getMediaType() {
+        return mediaTypes.get(0);
+    }
+
+    /**
+     * Returns all media types accepted for the format, the first one is the one it is served with.
+     */
+    public List<String> getMediaTypes() {
+        return mediaTypes;
+    }
+}
@@ -0,0 +1,108 @@
+package pl.edu.icm.rds.extension.citation;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Pre-rendered text citations stored in the search index.
+ * <p>
+ * {@link #render(CitationData)} returns the stored fields with the html citation of a dataset for every
+ * configured locale and {@link #read(Map, Locale, Supplier)} reads the citation back from a result document,
+ * falling back to the converter only if the document has no citation for the locale.
+ * The index schema must declare the {@value #FIELD_PREFIX}* fields as stored.
+ * <p>
+ * Nothing in the extension calls the bean: the indexing and the search result rendering of the application
+ * have to call it, until then indexing and result listings are unchanged.
+ * <p>
+ * The bean renders citations for the comma separated language tags of the {@value #LOCALES_PROPERTY}
+ * system property, {@code en} by default.
+ */
+@ApplicationScoped
+public class CitationIndexFields {
+    public static final String FIELD_PREFIX = "rdsCitation_";
+    public static final String LOCALES_PROPERTY = "rds.citation.index.locales";
+
+    private RdsCitationFormatsConverter converter;
+    private List<Locale> locales;
+
+    // -------------------- CONSTRUCTORS --------------------
+
+    public CitationIndexFields() { }
+
+    @Inject
+    public CitationIndexFields(RdsCitationFormatsConverter converter) {
+        this(converter, parseLocales(System.getProperty(LOCALES_PROPERTY, "en")));
+    }
+
+    public CitationIndexFields(RdsCitationFormatsConverter converter, Collection<Locale> locales) {
+        this.converter = converter;
+        this.locales = Collections.unmodifiableList(new ArrayList<>(locales));
+    }
+
+    // -------------------- GETTERS --------------------
+
+    public List<Locale> getLocales() {
+        return locales;
+    }
+
+    // -------------------- LOGIC --------------------
+
+    public static String fieldName(Locale locale) {
+        return FIELD_PREFIX + locale.toLanguageTag();
+    }
+
+    /**
+     * Parses comma separated language tags, skipping blank ones, e.g. {@code "en, pl"}.
+     */
+    static List<Locale> parseLocales(String languageTags) {
+        return Arrays.stream(languageTags.split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .map(Locale::forLanguageTag)
+                .collect(toList());
+    }
+
+    /**
+     * Renders the stored citation fields of a dataset, one for each configured locale.
+     */
+    public Map<String, String> render(CitationData data) {
+        Map<String, String> fields = new LinkedHashMap<>();
+        converter.render(CitationFormat.TEXT, data, locales, true)
+                .forEach((locale, citation) -> fields.put(fieldName(locale), citation));
+        return fields;
+    }
+
+    /**
+     * Returns the citation stored in the index document or, if it is missing, renders it from the data
+     * returned by the supplier.
+     */
+    public String read(Map<String, ?> document, Locale locale, Supplier<CitationData> onMiss) {
+        String stored = extractValue(document.get(fieldName(locale)));
+        return stored != null
+                ? stored
+                : converter.toString(onMiss.get(), locale, true);
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private String extractValue(Object value) {
+        if (value instanceof Collection) {
+            Collection<?> values = (Collection<?>) value;
+            value = values.isEmpty() ? null : values.iterator().next();
+        }
+        return value instanceof String ? (String) value : null;
+    }
+}
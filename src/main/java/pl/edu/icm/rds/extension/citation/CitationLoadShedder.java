@@ -0,0 +1,146 @@
+package pl.edu.icm.rds.extension.citation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Sheds citation rendering load of {@link SheddingCitationRenderer} when rendering gets slow.
+ * <p>
+ * The shedder tracks the number of renders in progress and the moving average of render time. When either
+ * exceeds its threshold, it serves the last rendering of the requested citation or, if there is none,
+ * the fallback, and refreshes the citation on the given executor, which should be a small bounded pool.
+ * Without a last rendering and a fallback the citation is rendered directly. The average decays with time,
+ * halving every second without renders, so normal rendering resumes as soon as the load drops even if all
+ * renders were shed meanwhile.
+ */
+class CitationLoadShedder {
+    private static final Logger logger = LoggerFactory.getLogger(CitationLoadShedder.class);
+
+    private static final double LATENCY_SMOOTHING = 0.2;
+    private static final double LATENCY_HALF_LIFE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final int maxInFlight;
+    private final long latencyThresholdNanos;
+    private final Executor refreshExecutor;
+    private final LongSupplier clock;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile Latency latency = new Latency(0, 0);
+    private final GenerationalCache<List<Object>, String> lastRenderings;
+    private final Set<List<Object>> refreshing = ConcurrentHashMap.newKeySet();
+
+    // -------------------- CONSTRUCTORS --------------------
+
+    /**
+     * @param maxInFlight number of renders in progress above which load is shed
+     * @param latencyThresholdMillis average render time above which load is shed
+     * @param refreshExecutor executor refreshing citations served from last renderings
+     * @param capacity number of remembered renderings after which older ones start being evicted
+     * @param clock source of {@link System#nanoTime()} like time
+     */
+    CitationLoadShedder(int maxInFlight, long latencyThresholdMillis, Executor refreshExecutor, int capacity,
+                        LongSupplier clock) {
+        this.maxInFlight = maxInFlight;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMillis);
+        this.refreshExecutor = refreshExecutor;
+        this.lastRenderings = new GenerationalCache<>(capacity);
+        this.clock = clock;
+    }
+
+    // -------------------- LOGIC --------------------
+
+    /**
+     * Renders the citation or, when overloaded, serves its last rendering or the fallback.
+     *
+     * @param key identifies the citation among last renderings, {@code null} if it should not be remembered
+     * @param fallback renders a cheaper citation served when overloaded, may be {@code null}
+     */
+    String render(List<Object> key, Supplier<String> renderer, Supplier<String> fallback) {
+        if (key != null && isOverloaded()) {
+            String last = lastRenderings.get(key);
+            if (last != null || fallback != null) {
+                refresh(key, renderer);
+                return last != null ? last : fallback.get();
+            }
+        }
+
+        inFlight.incrementAndGet();
+        try {
+            return renderAndRemember(key, renderer);
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    boolean isOverloaded() {
+        return inFlight.get() >= maxInFlight || latency.decayedAt(clock.getAsLong()) > latencyThresholdNanos;
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private String renderAndRemember(List<Object> key, Supplier<String> renderer) {
+        long start = clock.getAsLong();
+        String citation = renderer.get();
+        recordLatency(start, clock.getAsLong());
+        if (key != null) {
+            lastRenderings.put(key, citation);
+        }
+        return citation;
+    }
+
+    private void refresh(List<Object> key, Supplier<String> renderer) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    renderAndRemember(key, renderer);
+                } catch (RuntimeException e) {
+                    logger.warn("Citation refresh failed for " + key, e);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    /**
+     * Concurrent updates may overwrite each other, which only loses a sample of the average.
+     */
+    private void recordLatency(long start, long end) {
+        double average = latency.decayedAt(end);
+        latency = new Latency(average + LATENCY_SMOOTHING * ((end - start) - average), end);
+    }
+
+    // -------------------- INNER CLASSES --------------------
+
+    private static final class Latency {
+        private final double averageNanos;
+        private final long sampledAt;
+
+        Latency(double averageNanos, long sampledAt) {
+            this.averageNanos = averageNanos;
+            this.sampledAt = sampledAt;
+        }
+
+        double decayedAt(long time) {
+            long elapsed = time - sampledAt;
+            return elapsed > 0
+                    ? averageNanos * Math.pow(0.5, elapsed / LATENCY_HALF_LIFE_NANOS)
+                    : averageNanos;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package pl.edu.icm.rds.extension.citation;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Rendered parts of a text citation together with the inputs each part was rendered from.
+ * <p>
+ * Versions of a dataset usually differ in a few fields only, so a citation of the next version can reuse
+ * the parts of the previous one whose inputs are equal. Hashes of the inputs only rule out changed parts
+ * quickly, a part is reused when its inputs are equal. Instances are immutable, inputs must not be
+ * modified after they are passed in.
+ */
+final class CitationParts {
+
+    private static final Part[] PARTS = Part.values();
+
+    private final Object[] inputs;
+    private final int[] hashes;
+    private final String[] parts;
+
+    // -------------------- CONSTRUCTORS --------------------
+
+    private CitationParts(Object[] inputs, int[] hashes, String[] parts) {
+        this.inputs = inputs;
+        this.hashes = hashes;
+        this.parts = parts;
+    }
+
+    // -------------------- GETTERS --------------------
+
+    String get(Part part) {
+        return parts[part.ordinal()];
+    }
+
+    // -------------------- LOGIC --------------------
+
+    /**
+     * Returns the parts for the given inputs (indexed by {@link Part#ordinal()}). Parts of the previous
+     * instance with equal inputs are reused, the others are rendered with the renderer.
+     *
+     * @param previous parts rendered before, e.g. for the previous version of the dataset, or {@code null}
+     */
+    static CitationParts update(CitationParts previous, Object[] inputs, Function<Part, String> renderer) {
+        int[] hashes = new int[PARTS.length];
+        for (Part part : PARTS) {
+            hashes[part.ordinal()] = Objects.hashCode(inputs[part.ordinal()]);
+        }
+        if (previous != null && Arrays.equals(previous.hashes, hashes) && Arrays.equals(previous.inputs, inputs)) {
+            return previous;
+        }
+        String[] parts = new String[PARTS.length];
+        for (Part part : PARTS) {
+            parts[part.ordinal()] = previous != null && previous.isSame(part, hashes, inputs)
+                    ? previous.parts[part.ordinal()]
+                    : renderer.apply(part);
+        }
+        return new CitationParts(inputs, hashes, parts);
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private boolean isSame(Part part, int[] otherHashes, Object[] otherInputs) {
+        int index = part.ordinal();
+        return hashes[index] == otherHashes[index] && Objects.equals(inputs[index], otherInputs[index]);
+    }
+
+    // -------------------- INNER CLASSES --------------------
+
+    /**
+     * Parts of the text citation. Each part is rendered without part delimiters, which are added
+     * when the parts are joined into the citation.
+     */
+    enum Part {
+        AUTHORS,
+        TITLE,
+        PRODUCERS,
+        PRODUCTION_PLACE,
+        PRODUCTION_DATE,
+        OTHER_IDS,
+        DISTRIBUTORS,
+        PUBLISHER,
+        YEAR,
+        PID,
+        VERSION,
+        FILE
+    }
+}
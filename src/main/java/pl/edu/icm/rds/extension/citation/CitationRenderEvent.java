@@ -0,0 +1,86 @@
+package pl.edu.icm.rds.extension.citation;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+import edu.harvard.iq.dataverse.persistence.GlobalId;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import java.util.Locale;
+
+/**
+ * Flight Recorder event emitted for every citation rendered by {@link RdsCitationFormatsConverter}.
+ * <p>
+ * Only renders slower than the threshold are recorded. The default can be overridden with
+ * {@code <setting name="threshold">} of the {@code pl.edu.icm.rds.CitationRender} event in a custom
+ * {@code .jfc} settings file.
+ */
+@Name(CitationRenderEvent.NAME)
+@Label("Citation Render")
+@Category({"RDS", "Citation"})
+@Description("Rendering of a single citation")
+@StackTrace(false)
+@Threshold("20 ms")
+class CitationRenderEvent extends Event {
+    static final String NAME = "pl.edu.icm.rds.CitationRender";
+
+    @Label("Format")
+    String format;
+
+    @Label("Locale")
+    String locale;
+
+    @Label("Persistent Id")
+    String persistentId;
+
+    @Label("Authors")
+    int authorCount;
+
+    @Label("Producers")
+    int producerCount;
+
+    @Label("Distributors")
+    int distributorCount;
+
+    @Label("Keywords")
+    int keywordCount;
+
+    @Label("Output Length")
+    @Description("Number of characters in the rendered citation")
+    int outputLength;
+
+    // -------------------- LOGIC --------------------
+
+    static CitationRenderEvent start() {
+        CitationRenderEvent event = new CitationRenderEvent();
+        event.begin();
+        return event;
+    }
+
+    void finish(CitationFormat format, CitationData data, Locale locale, String output) {
+        end();
+        if (!shouldCommit()) {
+            return;
+        }
+        this.format = format.name();
+        this.locale = locale != null ? locale.toLanguageTag() : null;
+        this.persistentId = extractPersistentId(data);
+        this.authorCount = data.getAuthors().size();
+        this.producerCount = data.getProducers().size();
+        this.distributorCount = data.getDistributors().size();
+        this.keywordCount = data.getKeywords().size();
+        this.outputLength = output != null ? output.length() : 0;
+        commit();
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private String extractPersistentId(CitationData data) {
+        GlobalId pid = data.getPidOfDataset() != null ? data.getPidOfDataset() : data.getPersistentId();
+        return pid != null ? pid.asString() : null;
+    }
+}
@@ -0,0 +1,86 @@
+package pl.edu.icm.rds.extension.citation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Bounded concurrent cache that approximates least recently used eviction with two generations.
+ * <p>
+ * New entries go to the current generation. When it is full it becomes the previous generation and
+ * the former previous generation is dropped. Entries found in the previous generation are promoted
+ * to the current one, so entries in use survive rotations. Lookups and insertions do not lock,
+ * only the rotation itself is synchronized. At most twice the generation size entries are kept.
+ */
+class GenerationalCache<K, V> {
+
+    private final int generationSize;
+
+    private volatile ConcurrentHashMap<K, V> current = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<K, V> previous = new ConcurrentHashMap<>();
+
+    // -------------------- CONSTRUCTORS --------------------
+
+    GenerationalCache(int generationSize) {
+        this.generationSize = Math.max(generationSize, 1);
+    }
+
+    // -------------------- LOGIC --------------------
+
+    /**
+     * Returns the cached value or {@code null} if there is none.
+     */
+    V get(K key) {
+        V value = current.get(key);
+        if (value != null) {
+            return value;
+        }
+        value = previous.get(key);
+        if (value != null) {
+            V promoted = insert(key, value);
+            return promoted != null ? promoted : value;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the cached value, creating and caching it if absent. Concurrent callers may create the value
+     * more than once, but all of them get the instance that was cached first.
+     */
+    V get(K key, Supplier<V> factory) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+        V created = factory.get();
+        V cached = insert(key, created);
+        return cached != null ? cached : created;
+    }
+
+    void put(K key, V value) {
+        rotateIfFull();
+        current.put(key, value);
+    }
+
+    int size() {
+        return current.size() + previous.size();
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private V insert(K key, V value) {
+        rotateIfFull();
+        return current.putIfAbsent(key, value);
+    }
+
+    private void rotateIfFull() {
+        if (current.size() < generationSize) {
+            return;
+        }
+        synchronized (this) {
+            if (current.size() >= generationSize) {
+                previous = current;
+                current = new ConcurrentHashMap<>();
+            }
+        }
+    }
+}
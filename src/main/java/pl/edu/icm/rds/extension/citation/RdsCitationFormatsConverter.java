@@ -8,6 +8,7 @@ import edu.harvard.iq.dataverse.persistence.GlobalId;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import pl.edu.icm.rds.extension.citation.CitationParts.Part;
 
 import javax.annotation.Priority;
 import javax.ejb.EJBException;
@@ -18,11 +19,43 @@ import javax.xml.stream.XMLStreamWriter;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
+import static pl.edu.icm.rds.extension.citation.CitationField.AUTHORS;
+import static pl.edu.icm.rds.extension.citation.CitationField.DISTRIBUTORS;
+import static pl.edu.icm.rds.extension.citation.CitationField.FILE_TITLE;
+import static pl.edu.icm.rds.extension.citation.CitationField.KEYWORDS;
+import static pl.edu.icm.rds.extension.citation.CitationField.LANGUAGES;
+import static pl.edu.icm.rds.extension.citation.CitationField.OTHER_IDS;
+import static pl.edu.icm.rds.extension.citation.CitationField.PERSISTENT_ID;
+import static pl.edu.icm.rds.extension.citation.CitationField.PID_OF_DATASET;
+import static pl.edu.icm.rds.extension.citation.CitationField.PID_OF_FILE;
+import static pl.edu.icm.rds.extension.citation.CitationField.PRODUCERS;
+import static pl.edu.icm.rds.extension.citation.CitationField.PRODUCTION_DATE;
+import static pl.edu.icm.rds.extension.citation.CitationField.PRODUCTION_PLACE;
+import static pl.edu.icm.rds.extension.citation.CitationField.RELEASE_YEAR;
+import static pl.edu.icm.rds.extension.citation.CitationField.ROOT_DATAVERSE_NAME;
+import static pl.edu.icm.rds.extension.citation.CitationField.TITLE;
+import static pl.edu.icm.rds.extension.citation.CitationField.VERSION;
+import static pl.edu.icm.rds.extension.citation.CitationField.YEAR;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.isNotBlank;
 
@@ -30,41 +63,287 @@ import static org.apache.commons.lang3.StringUtils.isNotBlank;
 public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverter {
     private static final Logger logger = LoggerFactory.getLogger(RdsCitationFormatsConverter.class);
 
+    private static final char CONSTANT_MARK = '\uE000';
+
+    /**
+     * Renders placeholders in place of constants,
+     * see {@link #render(CitationFormat, CitationData, Collection, boolean)}.
+     */
+    private static final Function<CitationConstants, String> TEMPLATE_CONSTANTS =
+            c -> new String(new char[] {CONSTANT_MARK, (char) (CONSTANT_MARK + 1 + c.ordinal())});
+    private static final Function<CitationConstants, String> NULL_LOCALE_CONSTANTS = c -> getConstant(c, null);
+    private static final Map<Locale, Function<CitationConstants, String>> LOCALE_CONSTANTS = new ConcurrentHashMap<>();
+
+    private static final GenerationalCache<List<Object>, CitationParts> PARTS = new GenerationalCache<>(1024);
+
+    private static final Map<CitationFormat, Set<CitationField>> REQUIRED_FIELDS = new EnumMap<>(CitationFormat.class);
+
+    static {
+        REQUIRED_FIELDS.put(CitationFormat.TEXT, Collections.unmodifiableSet(EnumSet.of(
+                AUTHORS, TITLE, PRODUCERS, PRODUCTION_PLACE, PRODUCTION_DATE, OTHER_IDS, DISTRIBUTORS,
+                ROOT_DATAVERSE_NAME, YEAR, PERSISTENT_ID, VERSION, FILE_TITLE)));
+        REQUIRED_FIELDS.put(CitationFormat.BIBTEX, Collections.unmodifiableSet(EnumSet.of(
+                AUTHORS, TITLE, PRODUCERS, PRODUCTION_PLACE, PRODUCTION_DATE, DISTRIBUTORS, KEYWORDS,
+                ROOT_DATAVERSE_NAME, RELEASE_YEAR, YEAR, PID_OF_DATASET, PID_OF_FILE, VERSION, FILE_TITLE)));
+        REQUIRED_FIELDS.put(CitationFormat.RIS, Collections.unmodifiableSet(EnumSet.of(
+                AUTHORS, TITLE, PRODUCERS, PRODUCTION_PLACE, PRODUCTION_DATE, DISTRIBUTORS, LANGUAGES,
+                ROOT_DATAVERSE_NAME, RELEASE_YEAR, YEAR, PID_OF_DATASET, VERSION, FILE_TITLE)));
+        REQUIRED_FIELDS.put(CitationFormat.ENDNOTE, Collections.unmodifiableSet(EnumSet.of(
+                AUTHORS, TITLE, PRODUCERS, PRODUCTION_PLACE, PRODUCTION_DATE, DISTRIBUTORS, KEYWORDS, LANGUAGES,
+                ROOT_DATAVERSE_NAME, RELEASE_YEAR, YEAR, PID_OF_DATASET, VERSION, FILE_TITLE)));
+    }
+
     // -------------------- LOGIC --------------------
 
     @Override
     public String toString(CitationData data, Locale locale, boolean escapeHtml) {
-        CitationBuilder citation = new CitationBuilder(escapeHtml)
+        return createWithEvent(CitationFormat.TEXT, data, locale, escapeHtml);
+    }
+
+    @Override
+    public String toBibtexString(CitationData data, Locale locale) {
+        return createWithEvent(CitationFormat.BIBTEX, data, locale, false);
+    }
+
+    @Override
+    public String toRISString(CitationData data, Locale locale) {
+        return createWithEvent(CitationFormat.RIS, data, locale, false);
+    }
+
+    @Override
+    public String toEndNoteString(CitationData data, Locale locale) {
+        return createWithEvent(CitationFormat.ENDNOTE, data, locale, false);
+    }
+
+    /**
+     * Returns a minimal text citation consisting only of authors, title and PID, used when there is
+     * no time to render the full one, see {@link SheddingCitationRenderer}.
+     */
+    public String toMinimalString(CitationData data, boolean escapeHtml) {
+        String pid = extractPIDUrl(data.getPersistentId());
+        return new CitationBuilder(escapeHtml)
                 .value(data.getAuthorsString()).endPart(": ")
-                .value(data.getTitle())
-                .add(getConstant(CitationConstants.DATA, locale)).endPart(". ");
+                .value(data.getTitle()).endPart(". ")
+                .urlValue(pid, pid).endPartEmpty()
+                .toString();
+    }
+
+    /**
+     * Returns the fields of {@link CitationData} read when rendering the given format.
+     * Fields outside of this set do not affect the result and need not be loaded.
+     */
+    public Set<CitationField> getRequiredFields(CitationFormat format) {
+        return REQUIRED_FIELDS.get(format);
+    }
+
+    public String render(CitationFormat format, CitationData data, Locale locale, boolean escapeHtml) {
+        switch (format) {
+            case TEXT:
+                return toString(data, locale, escapeHtml);
+            case BIBTEX:
+                return toBibtexString(data, locale);
+            case RIS:
+                return toRISString(data, locale);
+            case ENDNOTE:
+                return toEndNoteString(data, locale);
+            default:
+                throw new IllegalArgumentException("Unsupported citation format: " + format);
+        }
+    }
+
+    /**
+     * Renders the given format for several locales at once. The citation is rendered once with placeholders
+     * in place of the translated constants, which are then substituted for each locale.
+     * Locales whose constants contain characters that could be escaped in the output are rendered separately,
+     * and so are all locales if the template cannot be used for the data, see {@link #canUseTemplate}.
+     */
+    public Map<Locale, String> render(CitationFormat format, CitationData data, Collection<Locale> locales,
+                                      boolean escapeHtml) {
+        Map<Locale, String> citations = new LinkedHashMap<>();
+        boolean useTemplate = canUseTemplate(format, data);
+        String template = null;
+        for (Locale locale : locales) {
+            String[] constants = getConstants(locale);
+            if (!useTemplate
+                    || !Arrays.stream(constants).allMatch(c -> StringUtils.containsNone(c, "&<>\"'{}\\%$#_^~"))) {
+                citations.put(locale, render(format, data, locale, escapeHtml));
+                continue;
+            }
+            CitationRenderEvent event = CitationRenderEvent.start();
+            if (template == null) {
+                template = create(format, data, TEMPLATE_CONSTANTS, escapeHtml);
+            }
+            String citation = fillConstants(template, constants);
+            event.finish(format, data, locale, citation);
+            citations.put(locale, citation);
+        }
+        return citations;
+    }
+
+    /**
+     * Renders the given format requesting from the provider only the fields that the format reads.
+     */
+    public String render(CitationFormat format, CitationDataProvider provider, Locale locale, boolean escapeHtml) {
+        return render(format, provider.provide(getRequiredFields(format)), locale, escapeHtml);
+    }
+
+    /**
+     * Returns the parts of the text citation memoized for the dataset or {@code null} if there are none.
+     */
+    CitationParts getMemoizedParts(GlobalId persistentId, Locale locale, boolean escapeHtml) {
+        return PARTS.get(Arrays.asList(persistentId.asString(), constantsFor(locale), escapeHtml));
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private String createWithEvent(CitationFormat format, CitationData data, Locale locale, boolean escapeHtml) {
+        CitationRenderEvent event = CitationRenderEvent.start();
+        String citation = create(format, data, constantsFor(locale), escapeHtml);
+        event.finish(format, data, locale, citation);
+        return citation;
+    }
+
+    private String create(CitationFormat format, CitationData data, Function<CitationConstants, String> constants,
+                          boolean escapeHtml) {
+        switch (format) {
+            case TEXT:
+                return createCitation(data, constants, escapeHtml);
+            case BIBTEX:
+                return createBibtex(data, constants);
+            case RIS:
+                return createRIS(data, constants);
+            case ENDNOTE:
+                return createEndNote(data, constants);
+            default:
+                throw new IllegalArgumentException("Unsupported citation format: " + format);
+        }
+    }
+
+    private String createCitation(CitationData data, Function<CitationConstants, String> constants, boolean escapeHtml) {
+        CitationParts parts = getParts(data, constants, escapeHtml);
+        CitationBuilder citation = new CitationBuilder(escapeHtml)
+                .rawValue(parts.get(Part.AUTHORS)).endPart(": ")
+                .rawValue(parts.get(Part.TITLE)).endPart(". ");
         if (!data.getProducers().isEmpty()) {
-            citation.value(joinProducers(data, locale)).endPartEmpty()
-                    .add(", ").value(data.getProductionPlace()).endPartEmpty()
-                    .add(", ").value(data.getProductionDate()).endPartEmpty()
+            citation.rawValue(parts.get(Part.PRODUCERS)).endPartEmpty()
+                    .rawValue(parts.get(Part.PRODUCTION_PLACE)).endPartEmpty()
+                    .rawValue(parts.get(Part.PRODUCTION_DATE)).endPartEmpty()
                     .endPart(". ");
         }
-        citation.value(data.getOtherIds().stream()
-                    .filter(StringUtils::isNotBlank)
-                    .collect(joining(", "))).endPart(". ")
-                .value(joinDistributors(data, locale)).endPart()
-                .value(data.getRootDataverseName())
-                    .add(getConstant(CitationConstants.PUBLISHER, locale)).endPart()
-                .rawValue(data.getYear()).endPart(". ");
-        String pid = extractPIDUrl(data.getPersistentId());
-
-        citation.urlValue(pid, pid).endPartEmpty()
-                .add(", ").rawValue(data.getVersion()).endPartEmpty();
+        citation.rawValue(parts.get(Part.OTHER_IDS)).endPart(". ")
+                .rawValue(parts.get(Part.DISTRIBUTORS)).endPart()
+                .rawValue(parts.get(Part.PUBLISHER)).endPart()
+                .rawValue(parts.get(Part.YEAR)).endPart(". ")
+                .rawValue(parts.get(Part.PID)).endPartEmpty()
+                .rawValue(parts.get(Part.VERSION)).endPartEmpty();
 
         if (shouldAddFileName(data)) {
-            citation.add(", ").value(data.getFileTitle()).add(getConstant(CitationConstants.FILE_NAME, locale))
-                    .endPartEmpty();
+            citation.rawValue(parts.get(Part.FILE)).endPartEmpty();
         }
         return citation.toString();
     }
 
-    @Override
-    public String toBibtexString(CitationData data, Locale locale) {
+    /**
+     * Returns the parts of the text citation. Parts are memoized per dataset (persistent id, constants and
+     * escaping), so a citation of another version of the dataset renders again only the parts whose
+     * inputs changed.
+     */
+    private CitationParts getParts(CitationData data, Function<CitationConstants, String> constants, boolean escapeHtml) {
+        Object[] inputs = getPartInputs(data);
+        Function<Part, String> renderer = part -> renderPart(part, data, constants, escapeHtml);
+        GlobalId persistentId = data.getPersistentId();
+        if (persistentId == null) {
+            return CitationParts.update(null, inputs, renderer);
+        }
+        List<Object> key = Arrays.asList(persistentId.asString(), constants, escapeHtml);
+        CitationParts previous = PARTS.get(key);
+        CitationParts parts = CitationParts.update(previous, inputs, renderer);
+        if (parts != previous) {
+            PARTS.put(key, parts);
+        }
+        return parts;
+    }
+
+    /**
+     * Returns the fields each part is rendered from. Lists are copied, as the memoized parts keep them
+     * while the citation data may change.
+     */
+    private Object[] getPartInputs(CitationData data) {
+        Object[] inputs = new Object[Part.values().length];
+        inputs[Part.AUTHORS.ordinal()] = new ArrayList<>(data.getAuthors());
+        inputs[Part.TITLE.ordinal()] = data.getTitle();
+        List<String> producers = new ArrayList<>();
+        for (CitationData.Producer producer : data.getProducers()) {
+            producers.add(producer.getName());
+            producers.add(producer.getAffiliation());
+        }
+        inputs[Part.PRODUCERS.ordinal()] = producers;
+        inputs[Part.PRODUCTION_PLACE.ordinal()] = data.getProductionPlace();
+        inputs[Part.PRODUCTION_DATE.ordinal()] = data.getProductionDate();
+        inputs[Part.OTHER_IDS.ordinal()] = new ArrayList<>(data.getOtherIds());
+        inputs[Part.DISTRIBUTORS.ordinal()] = new ArrayList<>(data.getDistributors());
+        inputs[Part.PUBLISHER.ordinal()] = data.getRootDataverseName();
+        inputs[Part.YEAR.ordinal()] = data.getYear();
+        inputs[Part.PID.ordinal()] = data.getPersistentId() != null ? data.getPersistentId().asString() : null;
+        inputs[Part.VERSION.ordinal()] = data.getVersion();
+        inputs[Part.FILE.ordinal()] = data.getFileTitle();
+        return inputs;
+    }
+
+    private String renderPart(Part part, CitationData data, Function<CitationConstants, String> constants,
+                              boolean escapeHtml) {
+        CitationBuilder builder = new CitationBuilder(escapeHtml);
+        switch (part) {
+            case AUTHORS:
+                builder.value(data.getAuthorsString()).endPartEmpty();
+                break;
+            case TITLE:
+                builder.value(data.getTitle()).add(constants.apply(CitationConstants.DATA)).endPartEmpty();
+                break;
+            case PRODUCERS:
+                builder.value(joinProducers(data, constants)).endPartEmpty();
+                break;
+            case PRODUCTION_PLACE:
+                builder.add(", ").value(data.getProductionPlace()).endPartEmpty();
+                break;
+            case PRODUCTION_DATE:
+                builder.add(", ").value(data.getProductionDate()).endPartEmpty();
+                break;
+            case OTHER_IDS:
+                builder.value(data.getOtherIds().stream()
+                        .filter(StringUtils::isNotBlank)
+                        .collect(joining(", "))).endPartEmpty();
+                break;
+            case DISTRIBUTORS:
+                builder.value(joinDistributors(data, constants)).endPartEmpty();
+                break;
+            case PUBLISHER:
+                builder.value(data.getRootDataverseName())
+                        .add(constants.apply(CitationConstants.PUBLISHER))
+                        .endPartEmpty();
+                break;
+            case YEAR:
+                builder.rawValue(data.getYear()).endPartEmpty();
+                break;
+            case PID:
+                String pid = extractPIDUrl(data.getPersistentId());
+                builder.urlValue(pid, pid).endPartEmpty();
+                break;
+            case VERSION:
+                builder.add(", ").rawValue(data.getVersion()).endPartEmpty();
+                break;
+            case FILE:
+                builder.add(", ").value(data.getFileTitle())
+                        .add(constants.apply(CitationConstants.FILE_NAME))
+                        .endPartEmpty();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported citation part: " + part);
+        }
+        return builder.toString();
+    }
+
+    private String createBibtex(CitationData data, Function<CitationConstants, String> constants) {
         GlobalId pid = data.getPidOfDataset() != null
                 ? data.getPidOfDataset()
                 : new GlobalId(StringUtils.EMPTY, StringUtils.EMPTY, StringUtils.EMPTY);
@@ -82,13 +361,13 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
             bibtex.line("keywords", String.join(", ", data.getKeywords()));
         }
 
-        String publishingData = createPublishingData(data, locale);
+        String publishingData = createPublishingData(data, constants);
         if (StringUtils.isNotBlank(publishingData)) {
             bibtex.line("publisher", publishingData);
         }
 
         bibtex.line("title", data.getTitle(),
-                    s -> bibtex.mapValue(s, "{", getConstant(CitationConstants.DATA, locale) + "},"));
+                    s -> bibtex.mapValue(s, "{", constants.apply(CitationConstants.DATA) + "},"));
 
         String pidUrl = pid.toURL() != null ? pid.toURL().toString() : StringUtils.EMPTY;
         String filePid = shouldAddFileName(data) && data.getPidOfFile() != null
@@ -98,7 +377,7 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
                 .line("year", getMainProductionYear(data) != null ? getMainProductionYear(data) : data.getYear());
 
         String fileName = shouldAddFileName(data)
-                ? data.getFileTitle() + getConstant(CitationConstants.FILE_NAME, locale)
+                ? data.getFileTitle() + constants.apply(CitationConstants.FILE_NAME)
                 : StringUtils.EMPTY;
         String noteEditionPart = data.getVersion() !=  null ? "Edition: " + data.getVersion() : StringUtils.EMPTY;
         String noteFilePart = fileName + filePid;
@@ -111,12 +390,11 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
         return bibtex.toString();
     }
 
-    @Override
-    public String toRISString(CitationData data, Locale locale) {
+    private String createRIS(CitationData data, Function<CitationConstants, String> constants) {
         RISCitationBuilder ris = new RISCitationBuilder()
                 .line("TY  - DATA")
                 .lines("AU", data.getAuthors())
-                .line("T1", data.getTitle() + getConstant(CitationConstants.DATA, locale));
+                .line("T1", data.getTitle() + constants.apply(CitationConstants.DATA));
         if (shouldAddFileName(data)) {
             ris.line("T2", data.getFileTitle());
         }
@@ -133,20 +411,19 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
         }
 
         if (!data.getProducers().isEmpty() || !data.getDistributors().isEmpty()) {
-            ris.line("PB", createPublishingData(data, locale));
+            ris.line("PB", createPublishingData(data, constants));
         }
 
         ris.line("ER", ""); // closing element
         return ris.toString();
     }
 
-    @Override
-    public String toEndNoteString(CitationData data, Locale locale) {
+    private String createEndNote(CitationData data, Function<CitationConstants, String> constants) {
         XMLOutputFactory xmlOutputFactory = XMLOutputFactory.newInstance();
         XMLStreamWriter xmlw = null;
         try (ByteArrayOutputStream buffer = new ByteArrayOutputStream()) {
             xmlw = xmlOutputFactory.createXMLStreamWriter(buffer);
-            createEndNoteXML(data, locale, xmlw);
+            createEndNoteXML(data, constants, xmlw);
             return buffer.toString();
         } catch (XMLStreamException | IOException e) {
             logger.error("", e);
@@ -162,9 +439,7 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
         }
     }
 
-    // -------------------- PRIVATE --------------------
-
-    private void createEndNoteXML(CitationData data, Locale locale, XMLStreamWriter xmlw) throws XMLStreamException {
+    private void createEndNoteXML(CitationData data, Function<CitationConstants, String> constants, XMLStreamWriter xmlw) throws XMLStreamException {
         EndNoteCitationBuilder xml = new EndNoteCitationBuilder(xmlw);
         xml.start()
                 .startTag("xml")
@@ -179,9 +454,9 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
                 .endTag(); // contributors
 
         xml.startTag("titles");
-        xml.addTagWithValue("title", data.getTitle() + getConstant(CitationConstants.DATA, locale));
+        xml.addTagWithValue("title", data.getTitle() + constants.apply(CitationConstants.DATA));
         if (shouldAddFileName(data)) {
-            xml.addTagWithValue("secondary-title", data.getFileTitle() + getConstant(CitationConstants.FILE_NAME, locale));
+            xml.addTagWithValue("secondary-title", data.getFileTitle() + constants.apply(CitationConstants.FILE_NAME));
         }
         xml.endTag() // titles
                 .addTagCollection("keywords", "keyword", data.getKeywords())
@@ -190,7 +465,7 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
                 .endTag();// dates
 
         if (!data.getProducers().isEmpty() || !data.getDistributors().isEmpty()) {
-            xml.addTagWithValue("publisher", createPublishingData(data, locale));
+            xml.addTagWithValue("publisher", createPublishingData(data, constants));
         }
 
         if (data.getVersion() != null) {
@@ -220,33 +495,33 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
         return /* data.isDirect() && */ isNotBlank(data.getFileTitle());
     }
 
-    private String joinDistributors(CitationData data, Locale locale) {
+    private String joinDistributors(CitationData data, Function<CitationConstants, String> constants) {
         return data.getDistributors().stream()
-                .map(d -> d + getConstant(CitationConstants.DISTRIBUTOR, locale))
+                .map(d -> d + constants.apply(CitationConstants.DISTRIBUTOR))
                 .collect(joining(", "));
     }
 
-    private String joinProducers(CitationData data, Locale locale) {
+    private String joinProducers(CitationData data, Function<CitationConstants, String> constants) {
         return data.getProducers().stream()
                 .map(p -> isNotBlank(p.getAffiliation())
                         ? p.getName() + ", " + p.getAffiliation()
                         : p.getName())
-                .map(p -> p + getConstant(CitationConstants.PRODUCER, locale))
+                .map(p -> p + constants.apply(CitationConstants.PRODUCER))
                 .collect(joining(", "));
     }
 
-    private String createPublishingData(CitationData data, Locale locale) {
+    private String createPublishingData(CitationData data, Function<CitationConstants, String> constants) {
         String producers = !data.getProducers().isEmpty()
-                ? Stream.of(joinProducers(data, locale), data.getProductionPlace())
+                ? Stream.of(joinProducers(data, constants), data.getProductionPlace())
                 .filter(StringUtils::isNotBlank)
                 .collect(joining(", ")) + ". "
                 : "";
-        String distributors = Stream.of(joinDistributors(data, locale))
+        String distributors = Stream.of(joinDistributors(data, constants))
                 .filter(StringUtils::isNotBlank)
                 .collect(joining(", "));
 
         String rootDvName = StringUtils.isNotBlank(data.getRootDataverseName()) ?
-                ", " + data.getRootDataverseName() + getConstant(CitationConstants.PUBLISHER, locale) : StringUtils.EMPTY;
+                ", " + data.getRootDataverseName() + constants.apply(CitationConstants.PUBLISHER) : StringUtils.EMPTY;
 
         String productionYear = StringUtils.isNotBlank(getAuxiliaryProductionYear(data))
                 ? ", " + getAuxiliaryProductionYear(data) : EMPTY;
@@ -265,10 +540,67 @@ public class RdsCitationFormatsConverter extends AbstractCitationFormatsConverte
                 .orElse(StringUtils.EMPTY);
     }
 
-    private String getConstant(CitationConstants constant, Locale locale) {
+    /**
+     * Returns the function rendering constants for the locale. There is a single function per locale,
+     * so it can be a part of cache keys.
+     */
+    private static Function<CitationConstants, String> constantsFor(Locale locale) {
+        return locale != null
+                ? LOCALE_CONSTANTS.computeIfAbsent(locale, l -> c -> getConstant(c, l))
+                : NULL_LOCALE_CONSTANTS;
+    }
+
+    private static String getConstant(CitationConstants constant, Locale locale) {
         return " [" + BundleUtil.getStringFromBundleWithLocale(constant.getKey(), locale) + "]";
     }
 
+    private String[] getConstants(Locale locale) {
+        return Arrays.stream(CitationConstants.values())
+                .map(constantsFor(locale))
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Returns whether placeholders of the template can be told apart from the data: a placeholder mark
+     * in a field, e.g. from user metadata, would be replaced with a constant. EndNote XML is written in UTF-8
+     * and read back in the default charset, which has to keep the marks too.
+     */
+    private boolean canUseTemplate(CitationFormat format, CitationData data) {
+        if (format == CitationFormat.ENDNOTE && !StandardCharsets.UTF_8.equals(Charset.defaultCharset())) {
+            return false;
+        }
+        Stream<String> values = Stream.of(data.getTitle(), data.getProductionPlace(), data.getProductionDate(),
+                data.getRootDataverseName(), data.getReleaseYear(), data.getYear(), data.getVersion(),
+                data.getFileTitle());
+        Stream<String> listValues = Stream.of(data.getAuthors(), data.getDistributors(), data.getOtherIds(),
+                data.getKeywords(), data.getLanguages())
+                .flatMap(List::stream);
+        Stream<String> producers = data.getProducers().stream()
+                .flatMap(producer -> Stream.of(producer.getName(), producer.getAffiliation()));
+        Stream<String> pids = Stream.of(data.getPersistentId(), data.getPidOfDataset(), data.getPidOfFile())
+                .filter(Objects::nonNull)
+                .map(GlobalId::asString);
+        return Stream.of(values, listValues, producers, pids)
+                .flatMap(Function.identity())
+                .noneMatch(value -> value != null && value.indexOf(CONSTANT_MARK) >= 0);
+    }
+
+    private String fillConstants(String template, String[] constants) {
+        StringBuilder citation = new StringBuilder(template.length() + 16 * constants.length);
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            int ordinal = c == CONSTANT_MARK && i + 1 < template.length()
+                    ? template.charAt(i + 1) - CONSTANT_MARK - 1 : -1;
+            if (ordinal >= 0 && ordinal < constants.length) {
+                citation.append(constants[ordinal]);
+                i++;
+            } else {
+                citation.append(c);
+            }
+        }
+        return citation.toString();
+    }
+
     private String getMainProductionYear(CitationData data) {
         return isNotBlank(data.getProductionDate())
                 ? data.getProductionDate() : data.getReleaseYear();
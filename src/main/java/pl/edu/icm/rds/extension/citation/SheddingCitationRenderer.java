@@ -0,0 +1,100 @@
+package pl.edu.icm.rds.extension.citation;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+import edu.harvard.iq.dataverse.persistence.GlobalId;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders citations shown on pages, shedding load when too many citations are rendered at once or rendering
+ * gets slow. When overloaded, the last rendering of the requested citation is served or, for the text format,
+ * the minimal citation of {@link RdsCitationFormatsConverter#toMinimalString(CitationData, boolean)},
+ * and the citation is refreshed in the background. See {@link CitationLoadShedder}.
+ * <p>
+ * Use it only where an approximate citation is acceptable. Exports, the search index and batch rendering
+ * call the converter directly, which always renders the full citation.
+ * <p>
+ * Thresholds are set with the system properties {@code rds.citation.shedding.maxInFlight},
+ * {@code rds.citation.shedding.latencyThresholdMillis}, {@code rds.citation.shedding.refreshThreads}
+ * and {@code rds.citation.shedding.capacity}. The refresh pool is shut down with the application.
+ */
+@ApplicationScoped
+public class SheddingCitationRenderer {
+
+    private RdsCitationFormatsConverter converter;
+    private CitationLoadShedder shedder;
+    private ThreadPoolExecutor refreshExecutor;
+
+    // -------------------- CONSTRUCTORS --------------------
+
+    public SheddingCitationRenderer() { }
+
+    @Inject
+    public SheddingCitationRenderer(RdsCitationFormatsConverter converter) {
+        this.converter = converter;
+    }
+
+    SheddingCitationRenderer(RdsCitationFormatsConverter converter, CitationLoadShedder shedder) {
+        this.converter = converter;
+        this.shedder = shedder;
+    }
+
+    @PostConstruct
+    void init() {
+        int refreshThreads = Integer.getInteger("rds.citation.shedding.refreshThreads", 2);
+        refreshExecutor = createRefreshExecutor(refreshThreads);
+        shedder = new CitationLoadShedder(
+                Integer.getInteger("rds.citation.shedding.maxInFlight", 4 * Runtime.getRuntime().availableProcessors()),
+                Long.getLong("rds.citation.shedding.latencyThresholdMillis", 200),
+                refreshExecutor,
+                Integer.getInteger("rds.citation.shedding.capacity", 10_000),
+                System::nanoTime);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (refreshExecutor != null) {
+            refreshExecutor.shutdownNow();
+        }
+    }
+
+    // -------------------- LOGIC --------------------
+
+    public String render(CitationFormat format, CitationData data, Locale locale, boolean escapeHtml) {
+        return shedder.render(createKey(format, data, locale, escapeHtml),
+                () -> converter.render(format, data, locale, escapeHtml),
+                format == CitationFormat.TEXT ? () -> converter.toMinimalString(data, escapeHtml) : null);
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private List<Object> createKey(CitationFormat format, CitationData data, Locale locale, boolean escapeHtml) {
+        GlobalId pid = data.getPidOfDataset() != null ? data.getPidOfDataset() : data.getPersistentId();
+        return pid != null
+                ? Arrays.<Object>asList(pid.asString(), data.getVersion(), data.getFileTitle(),
+                                        format, locale, escapeHtml)
+                : null;
+    }
+
+    private static ThreadPoolExecutor createRefreshExecutor(int threads) {
+        AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(threads * 16), r -> {
+                    Thread thread = new Thread(r, "rds-citation-refresh-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
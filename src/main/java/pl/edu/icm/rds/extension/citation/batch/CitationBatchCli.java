@@ -0,0 +1,125 @@
+package pl.edu.icm.rds.extension.citation.batch;
+
+import pl.edu.icm.rds.extension.citation.CitationFormat;
+import pl.edu.icm.rds.extension.citation.RdsCitationFormatsConverter;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Command line entry point rendering citations for {@code CitationData} records read from JSON Lines.
+ * <p>
+ * Usage: {@code [--format TEXT|BIBTEX|RIS|ENDNOTE] [--locale en] [--html] [--input records.jsonl]
+ * [--output citations.txt] [--threads n] [--chunk-size n]}. Standard input and output are used when
+ * no files are given, progress and throughput are reported on standard error.
+ */
+public class CitationBatchCli {
+
+    private static final int DEFAULT_CHUNK_SIZE = 500;
+
+    // -------------------- LOGIC --------------------
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        Map<String, String> options;
+        CitationFormat format;
+        int threads;
+        int chunkSize;
+        try {
+            options = parseOptions(args);
+            format = parseFormat(options.getOrDefault("format", "TEXT"));
+            threads = parsePositive(options, "threads", Runtime.getRuntime().availableProcessors());
+            chunkSize = parsePositive(options, "chunk-size", DEFAULT_CHUNK_SIZE);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            printUsage();
+            System.exit(1);
+            return;
+        }
+
+        Locale locale = Locale.forLanguageTag(options.getOrDefault("locale", "en"));
+        boolean escapeHtml = options.containsKey("html");
+
+        RdsCitationFormatsConverter converter = new RdsCitationFormatsConverter();
+        CitationDataJsonReader jsonReader = new CitationDataJsonReader();
+        CitationBatchRenderer renderer = new CitationBatchRenderer(
+                line -> converter.render(format, jsonReader.read(line), locale, escapeHtml),
+                threads, chunkSize, System.err::println);
+
+        try (BufferedReader input = new BufferedReader(openInput(options.get("input")));
+             Writer output = new BufferedWriter(openOutput(options.get("output")))) {
+            renderer.render(input, output);
+        }
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + args[i]);
+            }
+            String name = args[i].substring(2);
+            if ("html".equals(name)) {
+                options.put(name, "true");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value of option: " + args[i]);
+            }
+        }
+        return options;
+    }
+
+    private static CitationFormat parseFormat(String format) {
+        try {
+            return CitationFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format: " + format, e);
+        }
+    }
+
+    private static int parsePositive(Map<String, String> options, String name, int defaultValue) {
+        String value = options.get(name);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int parsed = Integer.parseInt(value.trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // reported below
+        }
+        throw new IllegalArgumentException("Expected a positive number for option --" + name + ": " + value);
+    }
+
+    private static Reader openInput(String path) throws IOException {
+        return path != null
+                ? Files.newBufferedReader(Paths.get(path), StandardCharsets.UTF_8)
+                : new InputStreamReader(System.in, StandardCharsets.UTF_8);
+    }
+
+    private static Writer openOutput(String path) throws IOException {
+        return path != null
+                ? Files.newBufferedWriter(Paths.get(path), StandardCharsets.UTF_8)
+                : new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+    }
+
+    private static void printUsage() {
+        System.err.println("Usage: [--format TEXT|BIBTEX|RIS|ENDNOTE] [--locale en] [--html] [--input records.jsonl]"
+                + " [--output citations.txt] [--threads n] [--chunk-size n]");
+    }
+}
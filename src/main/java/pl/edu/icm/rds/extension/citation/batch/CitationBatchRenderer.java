@@ -0,0 +1,129 @@
+package pl.edu.icm.rds.extension.citation.batch;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Renders lines of input in parallel chunks and writes the results in input order.
+ * <p>
+ * At most two chunks per thread are in flight, so memory usage does not depend on the input size.
+ */
+class CitationBatchRenderer {
+
+    private final Function<String, String> lineRenderer;
+    private final int threads;
+    private final int chunkSize;
+    private final Consumer<String> progressListener;
+
+    // -------------------- CONSTRUCTORS --------------------
+
+    CitationBatchRenderer(Function<String, String> lineRenderer, int threads, int chunkSize,
+                          Consumer<String> progressListener) {
+        this.lineRenderer = lineRenderer;
+        this.threads = threads;
+        this.chunkSize = chunkSize;
+        this.progressListener = progressListener;
+    }
+
+    // -------------------- LOGIC --------------------
+
+    /**
+     * Renders every non-blank input line and writes each result followed by a line separator.
+     *
+     * @return number of rendered records
+     */
+    long render(BufferedReader input, Writer output) throws IOException, InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<List<String>>> pending = new ArrayDeque<>();
+        long startTime = System.nanoTime();
+        long rendered = 0;
+        long lineNumber = 0;
+        long reportInterval = 10L * threads * chunkSize;
+        long nextReport = reportInterval;
+        try {
+            List<String> chunk = new ArrayList<>(chunkSize);
+            long chunkStart = 1;
+            String line;
+            while ((line = input.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                if (chunk.isEmpty()) {
+                    chunkStart = lineNumber;
+                }
+                chunk.add(line);
+                if (chunk.size() == chunkSize) {
+                    pending.add(submit(executor, chunk, chunkStart));
+                    chunk = new ArrayList<>(chunkSize);
+                }
+                if (pending.size() >= 2 * threads) {
+                    rendered += write(pending.poll(), output);
+                    if (rendered >= nextReport) {
+                        reportProgress("Rendered %d records so far", rendered, startTime);
+                        nextReport += reportInterval;
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submit(executor, chunk, chunkStart));
+            }
+            while (!pending.isEmpty()) {
+                rendered += write(pending.poll(), output);
+            }
+            output.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        reportProgress("Rendered %d records", rendered, startTime);
+        return rendered;
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private Future<List<String>> submit(ExecutorService executor, List<String> chunk, long chunkStart) {
+        return executor.submit(() -> {
+            List<String> results = new ArrayList<>(chunk.size());
+            try {
+                for (String line : chunk) {
+                    results.add(lineRenderer.apply(line));
+                }
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Cannot render record " + (results.size() + 1)
+                        + " of the chunk starting at input line " + chunkStart, e);
+            }
+            return results;
+        });
+    }
+
+    private int write(Future<List<String>> chunk, Writer output) throws IOException, InterruptedException {
+        List<String> results;
+        try {
+            results = chunk.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause().getMessage(), e.getCause());
+        }
+        for (String result : results) {
+            output.write(result);
+            output.write(System.lineSeparator());
+        }
+        return results.size();
+    }
+
+    private void reportProgress(String message, long rendered, long startTime) {
+        double elapsedSeconds = Math.max((System.nanoTime() - startTime) / 1_000_000_000.0, 0.001);
+        progressListener.accept(String.format(message + " in %.1f s (%.0f records/s)",
+                rendered, elapsedSeconds, rendered / elapsedSeconds));
+    }
+}
@@ -0,0 +1,81 @@
+package pl.edu.icm.rds.extension.citation.batch;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+import edu.harvard.iq.dataverse.persistence.GlobalId;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.io.StringReader;
+import java.util.List;
+
+/**
+ * Reads {@link CitationData} from a single JSON object, e.g.:
+ * <pre>
+ * {"authors": ["Author, The First"], "title": "Title", "producers": [{"name": "Producer", "affiliation": "ABC"}],
+ *  "distributors": [], "otherIds": [], "keywords": [], "languages": [], "productionPlace": "Warsaw",
+ *  "productionDate": "2001", "rootDataverseName": "Dataverse", "releaseYear": "2021", "year": "2019",
+ *  "persistentId": "doi:10.18150/ZENON", "pidOfDataset": "doi:10.18150/ZENON", "version": "V1",
+ *  "fileTitle": "File Name", "pidOfFile": "doi:10.18150/ZENON_F", "direct": true}
+ * </pre>
+ * Missing properties are left empty.
+ */
+class CitationDataJsonReader {
+
+    // -------------------- LOGIC --------------------
+
+    CitationData read(String json) {
+        try (JsonReader reader = Json.createReader(new StringReader(json))) {
+            return toCitationData(reader.readObject());
+        }
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private CitationData toCitationData(JsonObject json) {
+        CitationData data = new CitationData();
+        addStrings(json, "authors", data.getAuthors());
+        addStrings(json, "distributors", data.getDistributors());
+        addStrings(json, "otherIds", data.getOtherIds());
+        addStrings(json, "keywords", data.getKeywords());
+        addStrings(json, "languages", data.getLanguages());
+        JsonValue producers = json.get("producers");
+        if (producers instanceof JsonArray) {
+            ((JsonArray) producers).getValuesAs(JsonObject.class).forEach(p -> data.getProducers().add(
+                    new CitationData.Producer(getString(p, "name"), getString(p, "affiliation"))));
+        }
+        data.setTitle(getString(json, "title"))
+                .setProductionPlace(getString(json, "productionPlace"))
+                .setProductionDate(getString(json, "productionDate"))
+                .setRootDataverseName(getString(json, "rootDataverseName"))
+                .setReleaseYear(getString(json, "releaseYear"))
+                .setYear(getString(json, "year"))
+                .setPersistentId(getGlobalId(json, "persistentId"))
+                .setPidOfDataset(getGlobalId(json, "pidOfDataset"))
+                .setPidOfFile(getGlobalId(json, "pidOfFile"))
+                .setVersion(getString(json, "version"))
+                .setFileTitle(getString(json, "fileTitle"))
+                .setDirect(json.getBoolean("direct", false));
+        return data;
+    }
+
+    private void addStrings(JsonObject json, String name, List<String> target) {
+        JsonValue value = json.get(name);
+        if (value instanceof JsonArray) {
+            ((JsonArray) value).getValuesAs(JsonString.class).forEach(s -> target.add(s.getString()));
+        }
+    }
+
+    private String getString(JsonObject json, String name) {
+        JsonValue value = json.get(name);
+        return value instanceof JsonString ? ((JsonString) value).getString() : null;
+    }
+
+    private GlobalId getGlobalId(JsonObject json, String name) {
+        String value = getString(json, name);
+        return value != null ? new GlobalId(value) : null;
+    }
+}
@@ -0,0 +1,85 @@
+package pl.edu.icm.rds.extension.citation.web;
+
+import org.apache.commons.lang3.StringUtils;
+import pl.edu.icm.rds.extension.citation.CitationFormat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Chooses a {@link CitationFormat} for the {@code Accept} header of a request.
+ * <p>
+ * Media ranges are considered in the order of their quality. Wildcards {@code *}{@code /*} and {@code text/*}
+ * select the text citation, a missing header is treated as {@code *}{@code /*}.
+ */
+class CitationFormatNegotiator {
+
+    // -------------------- LOGIC --------------------
+
+    Optional<CitationFormat> negotiate(String acceptHeader) {
+        if (StringUtils.isBlank(acceptHeader)) {
+            return Optional.of(CitationFormat.TEXT);
+        }
+        List<MediaRange> ranges = new ArrayList<>();
+        for (String range : acceptHeader.split(",")) {
+            MediaRange mediaRange = MediaRange.parse(range);
+            if (mediaRange.quality > 0) {
+                ranges.add(mediaRange);
+            }
+        }
+        ranges.sort(Comparator.comparingDouble((MediaRange r) -> r.quality).reversed());
+
+        for (MediaRange range : ranges) {
+            Optional<CitationFormat> format = match(range.type);
+            if (format.isPresent()) {
+                return format;
+            }
+        }
+        return Optional.empty();
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private Optional<CitationFormat> match(String mediaType) {
+        if ("*/*".equals(mediaType) || "text/*".equals(mediaType)) {
+            return Optional.of(CitationFormat.TEXT);
+        }
+        for (CitationFormat format : CitationFormat.values()) {
+            if (format.getMediaTypes().contains(mediaType)) {
+                return Optional.of(format);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // -------------------- INNER CLASSES --------------------
+
+    private static class MediaRange {
+        private final String type;
+        private final double quality;
+
+        private MediaRange(String type, double quality) {
+            this.type = type;
+            this.quality = quality;
+        }
+
+        static MediaRange parse(String range) {
+            String[] parts = range.split(";");
+            double quality = 1.0;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2).trim());
+                    } catch (NumberFormatException e) {
+                        quality = 0;
+                    }
+                }
+            }
+            return new MediaRange(parts[0].trim().toLowerCase(Locale.ROOT), quality);
+        }
+    }
+}
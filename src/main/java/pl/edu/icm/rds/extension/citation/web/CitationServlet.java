@@ -0,0 +1,93 @@
+package pl.edu.icm.rds.extension.citation.web;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+import org.apache.commons.lang3.StringUtils;
+import pl.edu.icm.rds.extension.citation.CitationDataLookup;
+import pl.edu.icm.rds.extension.citation.CitationFormat;
+import pl.edu.icm.rds.extension.citation.RdsCitationFormatsConverter;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Serves the citation of a published dataset version in the format chosen by the {@code Accept} header:
+ * {@code GET /rds/citation?persistentId=doi:10.18150/ZENON&version=1.0}.
+ * <p>
+ * The format can be forced with the {@code format} parameter and the locale with the {@code locale} parameter.
+ * Only the fields read by the chosen format are loaded.
+ * <p>
+ * The citation is encoded into a byte array before it is written, so that {@code Content-Length} can be set.
+ * Citations are a few kilobytes at most, so the copy is cheap.
+ * <p>
+ * The servlet is registered by {@link CitationServletsRegistrar} only if the application provides
+ * a {@link CitationDataLookup}.
+ */
+public class CitationServlet extends HttpServlet {
+
+    @Inject
+    private RdsCitationFormatsConverter converter;
+
+    @Inject
+    private Instance<CitationDataLookup> citationDataLookup;
+
+    private final CitationFormatNegotiator negotiator = new CitationFormatNegotiator();
+
+    // -------------------- LOGIC --------------------
+
+    @Override
+    protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader("Vary", "Accept");
+        String persistentId = request.getParameter("persistentId");
+        if (StringUtils.isBlank(persistentId)) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Missing persistentId parameter");
+            return;
+        }
+        Optional<CitationFormat> format = resolveFormat(request);
+        if (!format.isPresent()) {
+            response.sendError(HttpServletResponse.SC_NOT_ACCEPTABLE);
+            return;
+        }
+
+        Optional<CitationData> data = citationDataLookup.get().findDataset(persistentId,
+                StringUtils.trimToNull(request.getParameter("version")), converter.getRequiredFields(format.get()));
+        if (!data.isPresent()) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        String citation = converter.render(format.get(), data.get(), resolveLocale(request), false);
+        byte[] content = citation.getBytes(StandardCharsets.UTF_8);
+        response.setContentType(format.get().getMediaType() + ";charset=UTF-8");
+        response.setContentLength(content.length);
+        try (OutputStream output = response.getOutputStream()) {
+            output.write(content);
+        }
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private Optional<CitationFormat> resolveFormat(HttpServletRequest request) {
+        String format = request.getParameter("format");
+        if (StringUtils.isBlank(format)) {
+            return negotiator.negotiate(request.getHeader("Accept"));
+        }
+        try {
+            return Optional.of(CitationFormat.valueOf(format.trim().toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Locale resolveLocale(HttpServletRequest request) {
+        String locale = request.getParameter("locale");
+        return StringUtils.isNotBlank(locale) ? Locale.forLanguageTag(locale) : request.getLocale();
+    }
+}
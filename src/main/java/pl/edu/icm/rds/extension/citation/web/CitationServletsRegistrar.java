@@ -0,0 +1,41 @@
+package pl.edu.icm.rds.extension.citation.web;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import pl.edu.icm.rds.extension.citation.CitationDataLookup;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+/**
+ * Registers the citation servlets when the application provides a {@link CitationDataLookup}.
+ * The servlets cannot load citation data without it, so without a lookup their paths are left unmapped
+ * instead of answering every request with an error.
+ */
+@WebListener
+public class CitationServletsRegistrar implements ServletContextListener {
+    private static final Logger logger = LoggerFactory.getLogger(CitationServletsRegistrar.class);
+
+    @Inject
+    private Instance<CitationDataLookup> citationDataLookup;
+
+    // -------------------- LOGIC --------------------
+
+    @Override
+    public void contextInitialized(ServletContextEvent event) {
+        if (citationDataLookup.isUnsatisfied()) {
+            logger.info("No CitationDataLookup bean, citation servlets are not registered");
+            return;
+        }
+        ServletContext context = event.getServletContext();
+        context.addServlet("rdsCitation", CitationServlet.class).addMapping("/rds/citation");
+        context.addServlet("rdsFileCitation", FileCitationServlet.class).addMapping("/rds/citation/files");
+    }
+
+    @Override
+    public void contextDestroyed(ServletContextEvent event) { }
+}
@@ -0,0 +1,101 @@
+package pl.edu.icm.rds.extension.citation.web;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+import org.apache.commons.lang3.StringUtils;
+import pl.edu.icm.rds.extension.citation.CitationDataLookup;
+import pl.edu.icm.rds.extension.citation.CitationFormat;
+import pl.edu.icm.rds.extension.citation.RdsCitationFormatsConverter;
+import pl.edu.icm.rds.extension.citation.SheddingCitationRenderer;
+
+import javax.enterprise.inject.Instance;
+import javax.inject.Inject;
+import javax.json.Json;
+import javax.json.JsonObjectBuilder;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Renders html citations of a batch of files, used to render file citations lazily, only for the rows
+ * of a file table that become visible: {@code POST /rds/citation/files} with {@code ids=1,2,3} and optional
+ * {@code locale}. The ids are file metadata ids, so each citation is rendered for the dataset version
+ * the file is listed in, drafts included. Responds with a JSON object mapping the ids to citations.
+ * The requests are sent by {@code resources/js/rds-lazy-citations.js}. Citations are rendered through
+ * {@link SheddingCitationRenderer}, so under load a row may get its last or minimal citation.
+ * The response is encoded into a byte array before it is written, so that {@code Content-Length} can be set.
+ * <p>
+ * The servlet is registered by {@link CitationServletsRegistrar} only if the application provides
+ * a {@link CitationDataLookup}.
+ */
+public class FileCitationServlet extends HttpServlet {
+
+    private static final int MAX_BATCH_SIZE = 200;
+
+    @Inject
+    private RdsCitationFormatsConverter converter;
+
+    @Inject
+    private SheddingCitationRenderer renderer;
+
+    @Inject
+    private Instance<CitationDataLookup> citationDataLookup;
+
+    // -------------------- LOGIC --------------------
+
+    @Override
+    protected void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Set<Long> fileMetadataIds;
+        try {
+            fileMetadataIds = parseIds(request.getParameter("ids"));
+        } catch (NumberFormatException e) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Invalid ids parameter");
+            return;
+        }
+        if (fileMetadataIds.isEmpty() || fileMetadataIds.size() > MAX_BATCH_SIZE) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST,
+                    "Expected between 1 and " + MAX_BATCH_SIZE + " file metadata ids");
+            return;
+        }
+
+        Locale locale = resolveLocale(request);
+        Map<Long, CitationData> files = citationDataLookup.get()
+                .findFileVersions(fileMetadataIds, converter.getRequiredFields(CitationFormat.TEXT));
+        JsonObjectBuilder citations = Json.createObjectBuilder();
+        files.forEach((id, data) -> citations.add(String.valueOf(id),
+                renderer.render(CitationFormat.TEXT, data, locale, true)));
+
+        byte[] content = citations.build().toString().getBytes(StandardCharsets.UTF_8);
+        response.setContentType("application/json;charset=UTF-8");
+        response.setContentLength(content.length);
+        try (OutputStream output = response.getOutputStream()) {
+            output.write(content);
+        }
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private Set<Long> parseIds(String ids) {
+        Set<Long> parsed = new LinkedHashSet<>();
+        if (StringUtils.isBlank(ids)) {
+            return parsed;
+        }
+        for (String id : ids.split(",")) {
+            if (StringUtils.isNotBlank(id)) {
+                parsed.add(Long.parseLong(id.trim()));
+            }
+        }
+        return parsed;
+    }
+
+    private Locale resolveLocale(HttpServletRequest request) {
+        String locale = request.getParameter("locale");
+        return StringUtils.isNotBlank(locale) ? Locale.forLanguageTag(locale) : request.getLocale();
+    }
+}
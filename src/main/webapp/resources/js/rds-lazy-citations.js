@@ -0,0 +1,171 @@
+/*
+ * Lazy rendering of file citations.
+ *
+ * Elements with the data-rds-file-citation attribute set to a file metadata id are filled with the file
+ * citation when they become visible, or when RdsLazyCitations.load(element) is called, e.g. on opening
+ * a citation dialog. Citations of all elements that become visible together are fetched in a single request.
+ * Elements get the data-rds-citation-state attribute: loaded, missing or error if the request failed.
+ *
+ *     <script src="/resources/js/rds-lazy-citations.js" data-endpoint="/rds/citation/files" data-locale="pl"></script>
+ *     <span data-rds-file-citation="42"></span>
+ *
+ * Without data-endpoint the endpoint is resolved against the context path of the script. Without data-locale
+ * the locale is taken from the data-rds-citation-locale attribute of the elements or the lang of the page,
+ * see the rds:fileCitation component which renders such elements.
+ */
+(function (window, document) {
+    'use strict';
+
+    var script = document.currentScript;
+    var endpoint = (script && script.getAttribute('data-endpoint')) || resolveEndpoint(script);
+    var locale = (script && script.getAttribute('data-locale')) || '';
+    var maxBatchSize = 200;
+    var batchDelay = 50;
+
+    var queued = {};
+    var timer = null;
+    var observer = null;
+
+    function resolveEndpoint(script) {
+        var contextPath = script && script.src
+                ? script.src.replace(/\/(javax\.faces\.resource|resources)\/.*$/, '')
+                : '';
+        return contextPath + '/rds/citation/files';
+    }
+
+    /*
+     * Ids are compared as attribute values rather than put into a selector, so they need no escaping.
+     */
+    function pendingElements(ids) {
+        var elements = document.querySelectorAll('[data-rds-file-citation]:not([data-rds-citation-state])');
+        var pending = {};
+        ids.forEach(function (id) {
+            pending[id] = [];
+        });
+        for (var i = 0; i < elements.length; i++) {
+            var id = elements[i].getAttribute('data-rds-file-citation');
+            if (pending.hasOwnProperty(id)) {
+                pending[id].push(elements[i]);
+            }
+        }
+        return pending;
+    }
+
+    function fill(citations, ids) {
+        var pending = pendingElements(ids);
+        ids.forEach(function (id) {
+            pending[id].forEach(function (element) {
+                if (citations.hasOwnProperty(id)) {
+                    element.innerHTML = citations[id];
+                }
+                element.setAttribute('data-rds-citation-state', citations.hasOwnProperty(id) ? 'loaded' : 'missing');
+            });
+        });
+    }
+
+    function fail(ids) {
+        var pending = pendingElements(ids);
+        ids.forEach(function (id) {
+            pending[id].forEach(function (element) {
+                element.setAttribute('data-rds-citation-state', 'error');
+            });
+        });
+    }
+
+    function send(ids) {
+        var request = new XMLHttpRequest();
+        request.open('POST', endpoint);
+        request.setRequestHeader('Content-Type', 'application/x-www-form-urlencoded');
+        request.onload = function () {
+            var citations = null;
+            if (request.status === 200) {
+                try {
+                    citations = JSON.parse(request.responseText);
+                } catch (e) {
+                    citations = null;
+                }
+            }
+            if (citations) {
+                fill(citations, ids);
+            } else {
+                fail(ids);
+            }
+            ids.forEach(function (id) {
+                delete queued[id];
+            });
+        };
+        request.onerror = function () {
+            fail(ids);
+            ids.forEach(function (id) {
+                delete queued[id];
+            });
+        };
+        request.send('ids=' + encodeURIComponent(ids.join(',')) + '&locale='
+                + encodeURIComponent(locale || document.documentElement.lang || ''));
+    }
+
+    function flush() {
+        timer = null;
+        var ids = Object.keys(queued).filter(function (id) {
+            return queued[id] === 'queued';
+        });
+        for (var i = 0; i < ids.length; i += maxBatchSize) {
+            var batch = ids.slice(i, i + maxBatchSize);
+            batch.forEach(function (id) {
+                queued[id] = 'sent';
+            });
+            send(batch);
+        }
+    }
+
+    function load(element) {
+        var id = element.getAttribute('data-rds-file-citation');
+        if (!id || element.hasAttribute('data-rds-citation-state') || queued[id]) {
+            return;
+        }
+        queued[id] = 'queued';
+        if (!locale) {
+            locale = element.getAttribute('data-rds-citation-locale') || '';
+        }
+        if (observer) {
+            observer.unobserve(element);
+        }
+        if (timer === null) {
+            timer = window.setTimeout(flush, batchDelay);
+        }
+    }
+
+    function observe(root) {
+        var elements = (root || document).querySelectorAll('[data-rds-file-citation]:not([data-rds-citation-state])');
+        for (var i = 0; i < elements.length; i++) {
+            if (observer) {
+                observer.observe(elements[i]);
+            } else {
+                load(elements[i]);
+            }
+        }
+    }
+
+    if ('IntersectionObserver' in window) {
+        observer = new IntersectionObserver(function (entries) {
+            entries.forEach(function (entry) {
+                if (entry.isIntersecting) {
+                    load(entry.target);
+                }
+            });
+        }, {rootMargin: '200px'});
+    }
+
+    window.RdsLazyCitations = {
+        load: load,
+        observe: observe
+    };
+
+    if (document.readyState === 'loading') {
+        document.addEventListener('DOMContentLoaded', function () {
+            observe();
+        });
+    } else {
+        observe();
+    }
+})(window, document);
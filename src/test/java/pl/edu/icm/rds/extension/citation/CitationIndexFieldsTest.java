@@ -0,0 +1,94 @@
+package pl.edu.icm.rds.extension.citation;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+import edu.harvard.iq.dataverse.persistence.GlobalId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+class CitationIndexFieldsTest {
+
+    private static final Locale POLISH = new Locale("pl");
+
+    private RdsCitationFormatsConverter converter = new RdsCitationFormatsConverter();
+
+    private CitationIndexFields indexFields = new CitationIndexFields(converter, Arrays.asList(Locale.ENGLISH, POLISH));
+
+    // -------------------- TESTS --------------------
+
+    @Test
+    @DisplayName("Should render stored citation field for every locale")
+    void render() {
+
+        // given
+        CitationData data = createCitationData();
+
+        // when
+        Map<String, String> fields = indexFields.render(data);
+
+        // then
+        assertThat(fields).containsOnly(
+                entry("rdsCitation_en", converter.toString(data, Locale.ENGLISH, true)),
+                entry("rdsCitation_pl", converter.toString(data, POLISH, true)));
+        assertThat(fields.get("rdsCitation_pl")).contains("Title [dane]");
+    }
+
+    @Test
+    @DisplayName("Should read stored citation without rendering it")
+    void read__stored() {
+
+        // given
+        Map<String, Object> document = new HashMap<>();
+        document.put("rdsCitation_pl", Collections.singletonList("Stored citation"));
+
+        // when
+        String citation = indexFields.read(document, POLISH, () -> {
+            throw new AssertionError("Citation data should not be loaded");
+        });
+
+        // then
+        assertThat(citation).isEqualTo("Stored citation");
+    }
+
+    @Test
+    @DisplayName("Should render citation when it is missing in the document")
+    void read__missing() {
+
+        // when
+        String citation = indexFields.read(Collections.emptyMap(), Locale.ENGLISH, this::createCitationData);
+
+        // then
+        assertThat(citation).isEqualTo(converter.toString(createCitationData(), Locale.ENGLISH, true));
+    }
+
+    @Test
+    @DisplayName("Should parse configured locales")
+    void parseLocales() {
+
+        // when
+        List<Locale> locales = CitationIndexFields.parseLocales(" en, pl ,,");
+
+        // then
+        assertThat(locales).containsExactly(Locale.ENGLISH, POLISH);
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private CitationData createCitationData() {
+        CitationData data = new CitationData();
+        data.getAuthors().add("Author, The First");
+        data.setTitle("Title")
+                .setYear("2019")
+                .setPersistentId(new GlobalId("doi:10.18150/ZENON"));
+        return data;
+    }
+}
@@ -0,0 +1,140 @@
+package pl.edu.icm.rds.extension.citation;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+import edu.harvard.iq.dataverse.persistence.GlobalId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CitationLoadShedderTest {
+
+    private static final Locale TEST_LOCALE = Locale.ENGLISH;
+
+    private RdsCitationFormatsConverter converter = new RdsCitationFormatsConverter();
+
+    private List<Runnable> refreshes = new ArrayList<>();
+
+    private long time = 0;
+
+    // -------------------- TESTS --------------------
+
+    @Test
+    @DisplayName("Should render citation when not overloaded")
+    void render() {
+
+        // given
+        CitationLoadShedder shedder = new CitationLoadShedder(10, 10_000, refreshes::add, 10, () -> time);
+        CitationData data = createCitationData("V1");
+
+        // when
+        String citation = new SheddingCitationRenderer(converter, shedder)
+                .render(CitationFormat.TEXT, data, TEST_LOCALE, false);
+
+        // then
+        assertThat(shedder.isOverloaded()).isFalse();
+        assertThat(citation).isEqualTo(converter.toString(data, TEST_LOCALE, false));
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should serve minimal citation and refresh it asynchronously when overloaded")
+    void render__overloaded() {
+
+        // given
+        CitationLoadShedder shedder = new CitationLoadShedder(0, 10_000, refreshes::add, 10, () -> time);
+        SheddingCitationRenderer renderer = new SheddingCitationRenderer(converter, shedder);
+        CitationData data = createCitationData("V1");
+
+        // when
+        String first = renderer.render(CitationFormat.TEXT, data, TEST_LOCALE, false);
+        renderer.render(CitationFormat.TEXT, data, TEST_LOCALE, false);
+        int scheduledRefreshes = refreshes.size();
+        refreshes.forEach(Runnable::run);
+        String second = renderer.render(CitationFormat.TEXT, data, TEST_LOCALE, false);
+
+        // then
+        assertThat(first).isEqualTo("Author, The First: Title. https://doi.org/10.18150/ZENON");
+        assertThat(scheduledRefreshes).isEqualTo(1);
+        assertThat(second).isEqualTo(converter.toString(data, TEST_LOCALE, false));
+    }
+
+    @Test
+    @DisplayName("Should render other formats directly when overloaded and there is no last rendering")
+    void render__overloaded_other_format() {
+
+        // given
+        CitationLoadShedder shedder = new CitationLoadShedder(0, 10_000, refreshes::add, 10, () -> time);
+        CitationData data = createCitationData("V1");
+
+        // when
+        String ris = new SheddingCitationRenderer(converter, shedder)
+                .render(CitationFormat.RIS, data, TEST_LOCALE, false);
+
+        // then
+        assertThat(ris).isEqualTo(converter.toRISString(data, TEST_LOCALE));
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep last renderings of different versions separately")
+    void render__versions() {
+
+        // given
+        CitationLoadShedder shedder = new CitationLoadShedder(0, 10_000, refreshes::add, 10, () -> time);
+        SheddingCitationRenderer renderer = new SheddingCitationRenderer(converter, shedder);
+        renderer.render(CitationFormat.TEXT, createCitationData("V1"), TEST_LOCALE, false);
+        refreshes.forEach(Runnable::run);
+
+        // when
+        String citation = renderer.render(CitationFormat.TEXT, createCitationData("V2"), TEST_LOCALE, false);
+
+        // then
+        assertThat(citation).isEqualTo("Author, The First: Title. https://doi.org/10.18150/ZENON");
+    }
+
+    @Test
+    @DisplayName("Should stop shedding when average render time decays while renders are shed")
+    void isOverloaded__latency_decay() {
+
+        // given
+        CitationLoadShedder shedder = new CitationLoadShedder(10, 100, refreshes::add, 10, () -> time);
+        List<Object> key = Arrays.<Object>asList("doi:10.18150/ZENON", "V1");
+        shedder.render(key, () -> {
+            time += TimeUnit.SECONDS.toNanos(1);
+            return "slow";
+        }, null);
+        boolean overloaded = shedder.isOverloaded();
+        String shed = shedder.render(key, () -> "fast", () -> "fallback");
+
+        // when
+        time += TimeUnit.SECONDS.toNanos(2);
+
+        // then
+        assertThat(overloaded).isTrue();
+        assertThat(shed).isEqualTo("slow");
+        assertThat(refreshes).hasSize(1);
+        assertThat(shedder.isOverloaded()).isFalse();
+        assertThat(shedder.render(key, () -> "fast", () -> "fallback")).isEqualTo("fast");
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private CitationData createCitationData(String version) {
+        CitationData data = new CitationData();
+        data.getAuthors().add("Author, The First");
+        GlobalId globalId = new GlobalId("doi:10.18150/ZENON");
+        data.setTitle("Title")
+                .setYear("2019")
+                .setPersistentId(globalId)
+                .setPidOfDataset(globalId)
+                .setVersion(version);
+        return data;
+    }
+}
@@ -0,0 +1,61 @@
+package pl.edu.icm.rds.extension.citation;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenerationalCacheTest {
+
+    private GenerationalCache<String, String> cache = new GenerationalCache<>(2);
+
+    // -------------------- TESTS --------------------
+
+    @Test
+    @DisplayName("Should create value once and return the same instance for equal keys")
+    void get__reuse() {
+
+        // given
+        AtomicInteger creations = new AtomicInteger();
+
+        // when
+        String first = cache.get("a", () -> "A" + creations.incrementAndGet());
+        String second = cache.get("a", () -> "A" + creations.incrementAndGet());
+
+        // then
+        assertThat(second).isSameAs(first);
+        assertThat(creations).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should return null for absent key")
+    void get__absent() {
+
+        // when
+        String value = cache.get("a");
+
+        // then
+        assertThat(value).isNull();
+    }
+
+    @Test
+    @DisplayName("Should evict values not used since the previous generation")
+    void get__eviction() {
+
+        // given
+        cache.get("a", () -> "A");
+        cache.get("b", () -> "B");
+        cache.get("c", () -> "C");
+        cache.get("a", () -> "A2");
+
+        // when
+        cache.get("d", () -> "D");
+
+        // then
+        assertThat(cache.size()).isLessThanOrEqualTo(4);
+        assertThat(cache.get("a", () -> "A2")).isEqualTo("A");
+        assertThat(cache.get("b", () -> "B2")).isEqualTo("B2");
+    }
+}
@@ -4,11 +4,18 @@ import edu.harvard.iq.dataverse.citation.CitationData;
 import edu.harvard.iq.dataverse.persistence.GlobalId;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import pl.edu.icm.rds.extension.citation.CitationParts.Part;
 
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
 
 
 class RdsCitationFormatsConverterTest {
@@ -453,6 +460,154 @@ class RdsCitationFormatsConverterTest {
                         "2019. https://doi.org/10.18150/ZENON, File Name [file name]");
     }
 
+    @ParameterizedTest
+    @EnumSource(CitationFormat.class)
+    @DisplayName("Should create the same citation from required fields only as from full data")
+    void render__required_fields_only(CitationFormat format) {
+
+        // given
+        CitationData fullData = createFullCitationDataForFile();
+        CitationData requiredData = CitationField.copyOf(fullData, converter.getRequiredFields(format));
+
+        // when
+        String fromFull = converter.render(format, fullData, TEST_LOCALE, false);
+        String fromRequired = converter.render(format, requiredData, TEST_LOCALE, false);
+
+        // then
+        assertThat(fromRequired).isEqualTo(fromFull);
+    }
+
+    @Test
+    @DisplayName("Should request only the fields required by the format from provider")
+    void render__provider() {
+
+        // given
+        Set<CitationField> requested = EnumSet.noneOf(CitationField.class);
+        CitationDataProvider provider = fields -> {
+            requested.addAll(fields);
+            return CitationField.copyOf(createFullCitationData(), fields);
+        };
+
+        // when
+        String ris = converter.render(CitationFormat.RIS, provider, TEST_LOCALE, false);
+
+        // then
+        assertThat(ris).isEqualTo(converter.toRISString(createFullCitationData(), TEST_LOCALE));
+        assertThat(requested).doesNotContain(CitationField.KEYWORDS, CitationField.OTHER_IDS, CitationField.PID_OF_FILE);
+    }
+
+    @Test
+    @DisplayName("Should create citation of next dataset version reusing only unchanged parts")
+    void toString__next_version() {
+
+        // given
+        CitationData citationData = createFullCitationData();
+        converter.toString(citationData, TEST_LOCALE, false);
+        CitationParts parts = converter.getMemoizedParts(citationData.getPersistentId(), TEST_LOCALE, false);
+        CitationData nextVersion = createFullCitationData()
+                .setVersion("V2")
+                .setYear("2020");
+        nextVersion.getDistributors().add("Distributor 3");
+
+        // when
+        String citation = converter.toString(nextVersion, TEST_LOCALE, false);
+
+        // then
+        assertThat(citation)
+                .isEqualTo("Author, The First; Author, The Second: Title [data]. " +
+                        "Producer 1, ABC [producer], Producer 2, BCD [producer], Warsaw, 2001. " +
+                        "OtherId1, OtherId2, OtherId3. Distributor 1 [distributor], Distributor 2 [distributor], " +
+                        "Distributor 3 [distributor], Dataverse [publisher], 2020. https://doi.org/10.18150/ZENON, V2");
+        CitationParts nextParts = converter.getMemoizedParts(nextVersion.getPersistentId(), TEST_LOCALE, false);
+        for (Part part : EnumSet.of(Part.AUTHORS, Part.TITLE, Part.PRODUCERS, Part.PRODUCTION_PLACE,
+                Part.PRODUCTION_DATE, Part.OTHER_IDS, Part.PUBLISHER, Part.PID)) {
+            assertThat(nextParts.get(part)).as(part.name()).isSameAs(parts.get(part));
+        }
+        for (Part part : EnumSet.of(Part.DISTRIBUTORS, Part.YEAR, Part.VERSION)) {
+            assertThat(nextParts.get(part)).as(part.name()).isNotSameAs(parts.get(part));
+        }
+    }
+
+    @Test
+    @DisplayName("Should create citation of next dataset version rendering again only changed producers")
+    void toString__next_version__changed_producers() {
+
+        // given
+        CitationData citationData = createFullCitationData();
+        converter.toString(citationData, TEST_LOCALE, false);
+        CitationParts parts = converter.getMemoizedParts(citationData.getPersistentId(), TEST_LOCALE, false);
+        CitationData nextVersion = createFullCitationData();
+        nextVersion.getProducers().remove(1);
+
+        // when
+        String citation = converter.toString(nextVersion, TEST_LOCALE, false);
+
+        // then
+        assertThat(citation)
+                .isEqualTo("Author, The First; Author, The Second: Title [data]. " +
+                        "Producer 1, ABC [producer], Warsaw, 2001. " +
+                        "OtherId1, OtherId2, OtherId3. Distributor 1 [distributor], Distributor 2 [distributor], " +
+                        "Dataverse [publisher], 2019. https://doi.org/10.18150/ZENON, V1");
+        CitationParts nextParts = converter.getMemoizedParts(nextVersion.getPersistentId(), TEST_LOCALE, false);
+        for (Part part : EnumSet.complementOf(EnumSet.of(Part.PRODUCERS))) {
+            assertThat(nextParts.get(part)).as(part.name()).isSameAs(parts.get(part));
+        }
+        assertThat(nextParts.get(Part.PRODUCERS)).isNotSameAs(parts.get(Part.PRODUCERS));
+    }
+
+    @Test
+    @DisplayName("Should create citation of next dataset version with changed title of the same hash code")
+    void toString__next_version__title_hash_collision() {
+
+        // given
+        converter.toString(createFullCitationData().setTitle("Aa"), TEST_LOCALE, false);
+        CitationData nextVersion = createFullCitationData().setTitle("BB");
+
+        // when
+        String citation = converter.toString(nextVersion, TEST_LOCALE, false);
+
+        // then
+        assertThat(citation).startsWith("Author, The First; Author, The Second: BB [data]. ");
+    }
+
+    @ParameterizedTest
+    @EnumSource(CitationFormat.class)
+    @DisplayName("Should create the same citations for several locales at once as for each locale separately")
+    void render__locales(CitationFormat format) {
+
+        // given
+        CitationData citationData = createFullCitationDataForFile();
+        Locale polish = Locale.forLanguageTag("pl");
+
+        // when
+        Map<Locale, String> citations = converter.render(format, citationData, Arrays.asList(TEST_LOCALE, polish), false);
+
+        // then
+        assertThat(citations).containsExactly(
+                entry(TEST_LOCALE, converter.render(format, citationData, TEST_LOCALE, false)),
+                entry(polish, converter.render(format, citationData, polish, false)));
+        assertThat(citations.get(polish)).contains("Title [dane]");
+    }
+
+    @ParameterizedTest
+    @EnumSource(CitationFormat.class)
+    @DisplayName("Should create citations for several locales with placeholder characters in the data")
+    void render__locales__placeholder_characters(CitationFormat format) {
+
+        // given
+        CitationData citationData = createFullCitationDataForFile().setTitle("Title \uE000\uE001");
+        Locale polish = Locale.forLanguageTag("pl");
+
+        // when
+        Map<Locale, String> citations = converter.render(format, citationData, Arrays.asList(TEST_LOCALE, polish), false);
+
+        // then
+        assertThat(citations).containsExactly(
+                entry(TEST_LOCALE, converter.render(format, citationData, TEST_LOCALE, false)),
+                entry(polish, converter.render(format, citationData, polish, false)));
+        assertThat(citations.get(polish)).contains("[dane]");
+    }
+
     // -------------------- PRIVATE --------------------
 
     private CitationData createFullCitationData() {
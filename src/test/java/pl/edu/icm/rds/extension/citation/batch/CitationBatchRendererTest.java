@@ -0,0 +1,76 @@
+package pl.edu.icm.rds.extension.citation.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CitationBatchRendererTest {
+
+    private List<String> progress = new ArrayList<>();
+
+    // -------------------- TESTS --------------------
+
+    @Test
+    @DisplayName("Should write rendered records in input order")
+    void render__ordered() throws Exception {
+
+        // given
+        String input = IntStream.rangeClosed(1, 1000).mapToObj(String::valueOf).collect(Collectors.joining("\n"));
+        CitationBatchRenderer renderer = new CitationBatchRenderer(line -> "citation " + line, 4, 7, progress::add);
+        StringWriter output = new StringWriter();
+
+        // when
+        long rendered = renderer.render(new BufferedReader(new StringReader(input)), output);
+
+        // then
+        assertThat(rendered).isEqualTo(1000);
+        assertThat(output.toString().split(System.lineSeparator()))
+                .containsExactly(IntStream.rangeClosed(1, 1000).mapToObj(i -> "citation " + i).toArray(String[]::new));
+        assertThat(progress.get(progress.size() - 1)).startsWith("Rendered 1000 records in");
+    }
+
+    @Test
+    @DisplayName("Should skip blank lines")
+    void render__blank_lines() throws Exception {
+
+        // given
+        CitationBatchRenderer renderer = new CitationBatchRenderer(String::toUpperCase, 2, 10, progress::add);
+        StringWriter output = new StringWriter();
+
+        // when
+        long rendered = renderer.render(new BufferedReader(new StringReader("a\n\n  \nb\n")), output);
+
+        // then
+        assertThat(rendered).isEqualTo(2);
+        assertThat(output.toString()).isEqualTo("A" + System.lineSeparator() + "B" + System.lineSeparator());
+    }
+
+    @Test
+    @DisplayName("Should fail with position of record that cannot be rendered")
+    void render__failure() {
+
+        // given
+        CitationBatchRenderer renderer = new CitationBatchRenderer(line -> {
+            if ("bad".equals(line)) {
+                throw new IllegalArgumentException("Invalid record");
+            }
+            return line;
+        }, 2, 2, progress::add);
+
+        // when & then
+        assertThatThrownBy(() -> renderer.render(
+                new BufferedReader(new StringReader("a\nb\nc\nbad\n")), new StringWriter()))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("Cannot render record 2 of the chunk starting at input line 3");
+    }
+}
@@ -0,0 +1,87 @@
+package pl.edu.icm.rds.extension.citation.batch;
+
+import edu.harvard.iq.dataverse.citation.CitationData;
+import edu.harvard.iq.dataverse.persistence.GlobalId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import pl.edu.icm.rds.extension.citation.CitationFormat;
+import pl.edu.icm.rds.extension.citation.RdsCitationFormatsConverter;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CitationDataJsonReaderTest {
+
+    private static final Locale TEST_LOCALE = Locale.ENGLISH;
+
+    private static final String RECORD = "{\"authors\": [\"Author, The First\"], \"title\": \"Title\", " +
+            "\"producers\": [{\"name\": \"Producer\", \"affiliation\": \"ABC\"}], " +
+            "\"distributors\": [\"Distributor\"], \"otherIds\": [\"OtherId\"], \"keywords\": [\"Keyword\"], " +
+            "\"languages\": [\"polish\"], \"productionPlace\": \"Warsaw\", \"productionDate\": \"2001\", " +
+            "\"rootDataverseName\": \"Dataverse\", \"releaseYear\": \"2021\", \"year\": \"2019\", " +
+            "\"persistentId\": \"doi:10.18150/ZENON\", \"pidOfDataset\": \"doi:10.18150/ZENON\", \"version\": \"V1\", " +
+            "\"fileTitle\": \"File Name\", \"pidOfFile\": \"doi:10.18150/ZENON_F\", \"direct\": true}";
+
+    private RdsCitationFormatsConverter converter = new RdsCitationFormatsConverter();
+
+    private CitationDataJsonReader reader = new CitationDataJsonReader();
+
+    // -------------------- TESTS --------------------
+
+    @ParameterizedTest
+    @EnumSource(CitationFormat.class)
+    @DisplayName("Should read record rendering the same citation as the equivalent citation data")
+    void read(CitationFormat format) {
+
+        // when
+        CitationData data = reader.read(RECORD);
+
+        // then
+        assertThat(converter.render(format, data, TEST_LOCALE, false))
+                .isEqualTo(converter.render(format, createCitationData(), TEST_LOCALE, false));
+    }
+
+    @Test
+    @DisplayName("Should leave missing properties empty")
+    void read__missing_properties() {
+
+        // when
+        CitationData data = reader.read("{\"title\": \"Title\"}");
+
+        // then
+        assertThat(data.getTitle()).isEqualTo("Title");
+        assertThat(data.getAuthors()).isEmpty();
+        assertThat(data.getProducers()).isEmpty();
+        assertThat(data.getPersistentId()).isNull();
+        assertThat(data.getVersion()).isNull();
+    }
+
+    // -------------------- PRIVATE --------------------
+
+    private CitationData createCitationData() {
+        CitationData data = new CitationData();
+        data.getAuthors().add("Author, The First");
+        data.getProducers().add(new CitationData.Producer("Producer", "ABC"));
+        data.getDistributors().add("Distributor");
+        data.getOtherIds().add("OtherId");
+        data.getKeywords().add("Keyword");
+        data.getLanguages().add("polish");
+        GlobalId globalId = new GlobalId("doi:10.18150/ZENON");
+        data.setTitle("Title")
+                .setProductionPlace("Warsaw")
+                .setProductionDate("2001")
+                .setRootDataverseName("Dataverse")
+                .setReleaseYear("2021")
+                .setYear("2019")
+                .setPersistentId(globalId)
+                .setPidOfDataset(globalId)
+                .setVersion("V1")
+                .setFileTitle("File Name")
+                .setPidOfFile(new GlobalId("doi:10.18150/ZENON_F"))
+                .setDirect(true);
+        return data;
+    }
+}
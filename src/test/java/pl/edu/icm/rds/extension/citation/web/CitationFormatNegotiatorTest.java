@@ -0,0 +1,46 @@
+package pl.edu.icm.rds.extension.citation.web;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import pl.edu.icm.rds.extension.citation.CitationFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CitationFormatNegotiatorTest {
+
+    private CitationFormatNegotiator negotiator = new CitationFormatNegotiator();
+
+    // -------------------- TESTS --------------------
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "application/x-bibtex|BIBTEX",
+            "application/x-research-info-systems|RIS",
+            "text/xml|ENDNOTE",
+            "application/xml|ENDNOTE",
+            "text/x-bibliography|TEXT",
+            "text/plain|TEXT",
+            "*/*|TEXT",
+            "''|TEXT",
+            "text/html, application/x-bibtex;q=0.9, */*;q=0.1|BIBTEX",
+            "application/x-bibtex;q=0.5, application/x-research-info-systems|RIS",
+            "APPLICATION/X-BIBTEX|BIBTEX"
+    })
+    @DisplayName("Should choose format for Accept header")
+    void negotiate(String acceptHeader, CitationFormat expected) {
+
+        // when & then
+        assertThat(negotiator.negotiate(acceptHeader)).contains(expected);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"image/png", "application/json, text/html", "application/x-bibtex;q=0"})
+    @DisplayName("Should not choose any format for unsupported Accept header")
+    void negotiate__not_acceptable(String acceptHeader) {
+
+        // when & then
+        assertThat(negotiator.negotiate(acceptHeader)).isEmpty();
+    }
+}